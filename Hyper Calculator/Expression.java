@@ -0,0 +1,367 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filename: Expression.java
+ * Description: Compiles integer arithmetic such as "(a*b+c) % d" into a reusable
+ *              evaluation plan over GinormInt. The plan is a flat list of steps
+ *              in evaluation order. Identical subexpressions share one step and
+ *              constant subexpressions are folded while compiling. Each step
+ *              keeps its last value and is recomputed only when one of its
+ *              variables has changed, so streaming many bindings through one
+ *              plan reuses everything that stayed the same. Because of that
+ *              cache a plan is not thread-safe; compile one per thread.
+ *
+ *              Supported: integer literals, variables (letters, digits and '_',
+ *              starting with a letter or '_'), + - * / % ^, unary minus and
+ *              parentheses. / and % truncate like GinormInt.div() and mod(),
+ *              and ^ binds tightest and groups right to left.
+ */
+public class Expression {
+
+    private static final int CONSTANT = 0;
+    private static final int VARIABLE = 1;
+    private static final int NEGATE = 2;
+    private static final int ADD = 3;
+    private static final int SUBTRACT = 4;
+    private static final int MULTIPLY = 5;
+    private static final int DIVIDE = 6;
+    private static final int MOD = 7;
+    private static final int POWER = 8;
+    private static final GinormInt MAX_EXPONENT = GinormInt.valueOf(Integer.MAX_VALUE);
+
+    private final String source;
+    private final List<String> variables;
+    // one entry per step; operands always refer to earlier steps, and the last step is the result
+    private final int[] operations;
+    private final int[] lefts;
+    private final int[] rights;
+    private final GinormInt[] values;
+    private final boolean[] changed;
+    private boolean evaluated = false;
+
+    /**
+     * Builds an expression from an already-compiled plan.
+     */
+    private Expression(String source, List<String> variables, int[] operations, int[] lefts, int[] rights,
+            GinormInt[] values) {
+        this.source = source;
+        this.variables = Collections.unmodifiableList(variables);
+        this.operations = operations;
+        this.lefts = lefts;
+        this.rights = rights;
+        this.values = values;
+        this.changed = new boolean[operations.length];
+    }
+
+    /**
+     * Parses and compiles an expression.
+     *
+     * @param  source expression text
+     * @return compiled Expression
+     * @throws IllegalArgumentException if the text isn't a valid expression
+     */
+    public static Expression compile(String source) {
+        return new Compiler(source).compile();
+    }
+
+    /**
+     * Returns the variable names in the order evaluate(GinormInt...) expects them.
+     *
+     * @return unmodifiable list of variable names, in order of first appearance
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Evaluates the expression with variables looked up by name.
+     *
+     * @param  bindings value for every variable
+     * @return GinormInt result
+     * @throws IllegalArgumentException if a variable has no value
+     */
+    public GinormInt evaluate(Map<String, GinormInt> bindings) {
+        GinormInt[] arguments = new GinormInt[variables.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = bindings.get(variables.get(i));
+        }
+        return evaluate(arguments);
+    }
+
+    /**
+     * Evaluates the expression, recomputing only the steps that depend on a
+     * variable whose value differs from the previous call.
+     *
+     * @param  arguments value for each variable, in getVariables() order
+     * @return GinormInt result
+     * @throws IllegalArgumentException if a variable has no value
+     * @throws ArithmeticException      on division by zero or a bad exponent
+     */
+    public GinormInt evaluate(GinormInt... arguments) {
+        if (arguments.length != variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " values but got " + arguments.length);
+        }
+        for (GinormInt argument : arguments) {
+            if (argument == null) {
+                throw new IllegalArgumentException("Every variable in " + variables + " needs a value");
+            }
+        }
+        try {
+            for (int i = 0; i < operations.length; i++) {
+                int operation = operations[i];
+                if (operation == CONSTANT) {
+                    changed[i] = !evaluated;
+                } else if (operation == VARIABLE) {
+                    GinormInt argument = arguments[lefts[i]];
+                    changed[i] = !evaluated || !argument.equals(values[i]);
+                    values[i] = argument;
+                } else {
+                    changed[i] = !evaluated || changed[lefts[i]] || (rights[i] >= 0 && changed[rights[i]]);
+                    if (changed[i]) {
+                        values[i] = apply(operation, values[lefts[i]], rights[i] >= 0 ? values[rights[i]] : null);
+                    }
+                }
+            }
+        } catch (ArithmeticException e) {
+            // some steps are stale now, so the next call recomputes everything
+            evaluated = false;
+            throw e;
+        }
+        evaluated = true;
+        return values[values.length - 1];
+    }
+
+    /**
+     * Returns the source text this expression was compiled from.
+     *
+     * @return expression text
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Applies one operator to already-evaluated operands.
+     */
+    private static GinormInt apply(int operation, GinormInt left, GinormInt right) {
+        switch (operation) {
+            case NEGATE:
+                return GinormInt.ZERO.minus(left);
+            case ADD:
+                return left.plus(right);
+            case SUBTRACT:
+                return left.minus(right);
+            case MULTIPLY:
+                return left.times(right);
+            case DIVIDE:
+                return left.div(right);
+            case MOD:
+                return left.mod(right);
+            case POWER:
+                if (right.compareTo(GinormInt.ZERO) < 0 || right.compareTo(MAX_EXPONENT) > 0) {
+                    throw new ArithmeticException("Sorry, exponents must be between 0 and " + Integer.MAX_VALUE);
+                }
+                return left.pow(Integer.parseInt(right.toString()));
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    /**
+     * Recursive-descent parser that emits plan steps as it goes:
+     *
+     *     sum     := product (('+' | '-') product)*
+     *     product := unary (('*' | '/' | '%') unary)*
+     *     unary   := '-' unary | power
+     *     power   := primary ('^' unary)?
+     *     primary := number | variable | '(' sum ')'
+     */
+    private static class Compiler {
+        private final String source;
+        private int position = 0;
+        private final List<String> variables = new ArrayList<>();
+        private final Map<String, Integer> steps = new HashMap<>();
+        private int[] operations = new int[8];
+        private int[] lefts = new int[8];
+        private int[] rights = new int[8];
+        private GinormInt[] values = new GinormInt[8];
+        private int count = 0;
+
+        Compiler(String source) {
+            this.source = source;
+        }
+
+        Expression compile() {
+            int result = parseSum();
+            skipWhitespace();
+            if (position < source.length()) {
+                throw error("Unexpected '" + source.charAt(position) + "'");
+            }
+            // make sure the result is the last step even when it was shared with an earlier one
+            if (result != count - 1) {
+                emit(ADD, null, result, constant(GinormInt.ZERO), "result");
+            }
+            return new Expression(source, variables, Arrays.copyOf(operations, count), Arrays.copyOf(lefts, count),
+                Arrays.copyOf(rights, count), Arrays.copyOf(values, count));
+        }
+
+        private int parseSum() {
+            int left = parseProduct();
+            while (true) {
+                if (accept('+')) {
+                    left = binary(ADD, left, parseProduct());
+                } else if (accept('-')) {
+                    left = binary(SUBTRACT, left, parseProduct());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private int parseProduct() {
+            int left = parseUnary();
+            while (true) {
+                if (accept('*')) {
+                    left = binary(MULTIPLY, left, parseUnary());
+                } else if (accept('/')) {
+                    left = binary(DIVIDE, left, parseUnary());
+                } else if (accept('%')) {
+                    left = binary(MOD, left, parseUnary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private int parseUnary() {
+            if (accept('-')) {
+                int operand = parseUnary();
+                if (operations[operand] == CONSTANT) {
+                    return constant(GinormInt.ZERO.minus(values[operand]));
+                }
+                return emit(NEGATE, null, operand, -1);
+            }
+            return parsePower();
+        }
+
+        private int parsePower() {
+            int base = parsePrimary();
+            if (accept('^')) {
+                return binary(POWER, base, parseUnary());
+            }
+            return base;
+        }
+
+        private int parsePrimary() {
+            skipWhitespace();
+            if (accept('(')) {
+                int inner = parseSum();
+                if (!accept(')')) {
+                    throw error("Expected ')'");
+                }
+                return inner;
+            }
+            int start = position;
+            if (position < source.length() && isDigit(source.charAt(position))) {
+                while (position < source.length() && isDigit(source.charAt(position))) {
+                    position++;
+                }
+                return constant(new GinormInt(source.subSequence(start, position)));
+            }
+            if (position < source.length() && isIdentifierStart(source.charAt(position))) {
+                while (position < source.length()
+                        && (isIdentifierStart(source.charAt(position)) || isDigit(source.charAt(position)))) {
+                    position++;
+                }
+                String name = source.substring(start, position);
+                int slot = variables.indexOf(name);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add(name);
+                }
+                return emit(VARIABLE, null, slot, -1);
+            }
+            throw error(position < source.length() ? "Unexpected '" + source.charAt(position) + "'" : "Unexpected end");
+        }
+
+        /**
+         * Emits a binary step, folding it to a constant when both operands are
+         * constants and the operation succeeds.
+         */
+        private int binary(int operation, int left, int right) {
+            if (operations[left] == CONSTANT && operations[right] == CONSTANT) {
+                try {
+                    return constant(apply(operation, values[left], values[right]));
+                } catch (ArithmeticException e) {
+                    // leave it for evaluate() to report
+                }
+            }
+            return emit(operation, null, left, right);
+        }
+
+        private int constant(GinormInt value) {
+            return emit(CONSTANT, value, -1, -1);
+        }
+
+        private int emit(int operation, GinormInt value, int left, int right) {
+            String key = operation == CONSTANT ? "#" + value : operation + ":" + left + ":" + right;
+            return emit(operation, value, left, right, key);
+        }
+
+        /**
+         * Adds a step unless an identical one already exists, in which case
+         * that step is reused.
+         */
+        private int emit(int operation, GinormInt value, int left, int right, String key) {
+            Integer existing = steps.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (count == operations.length) {
+                operations = Arrays.copyOf(operations, 2 * count);
+                lefts = Arrays.copyOf(lefts, 2 * count);
+                rights = Arrays.copyOf(rights, 2 * count);
+                values = Arrays.copyOf(values, 2 * count);
+            }
+            operations[count] = operation;
+            lefts[count] = left;
+            rights[count] = right;
+            values[count] = value;
+            steps.put(key, count);
+            return count++;
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (position < source.length() && source.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isIdentifierStart(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in \"" + source + "\"");
+        }
+    }
+}
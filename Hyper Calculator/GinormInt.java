@@ -1,5 +1,7 @@
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * Filename: GinormInt.java
@@ -8,36 +10,99 @@ import java.util.List;
  * Date:
 */
 
-public class GinormInt implements Comparable<GinormInt> {
+public final class GinormInt implements Comparable<GinormInt> {
     // TODO: define your static and instance variables here
-    public static final GinormInt ONE = new GinormInt("1");
-    public static final GinormInt ZERO = new GinormInt("0");
-    public static final GinormInt TEN = new GinormInt("10");
-    private int[] digits;
-    private int[] reversedDigits;
-    private boolean isNegative = false;
-
-    /**
-     * Constructor takes in a string, saves it, checks for a sign character,
-     * checks to see if it's all valid digits, and reverses it for later use.
-     *
-     * @param  value  String value to make into a GinormInt
-     */
-    public GinormInt(String value) {
-        if (value.substring(0, 1).equals("-")) {
-            isNegative = true;
-            value = value.substring(1);
-        }
-        char[] chars = value.toCharArray();
-        digits = new int[value.length()];
-        reversedDigits = new int[value.length()];
-        for (int i = 0; i < digits.length; i += 1) {
-            if (!Character.isDigit(chars[i])) {
-                throw new IllegalArgumentException("Sorry, all characters must be decimal digit or sign characters.");
-            }
-            digits[i] = Integer.parseInt(String.valueOf(chars[i]));
-            reversedDigits[reversedDigits.length - i - 1] = digits[i];
+    static final int BASE = 1_000_000_000;
+    private static final int BASE_DIGITS = 9;
+    // shared instances handed out by valueOf(), like Integer.valueOf()'s cache
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final GinormInt[] CACHE = new GinormInt[CACHE_HIGH - CACHE_LOW + 1];
+    static {
+        for (int i = 0; i < CACHE.length; i += 1) {
+            CACHE[i] = new GinormInt(longLimbs(i + CACHE_LOW), i + CACHE_LOW < 0);
+        }
+    }
+    public static final GinormInt ONE = valueOf(1);
+    public static final GinormInt ZERO = valueOf(0);
+    public static final GinormInt TEN = valueOf(10);
+    private static final GinormInt TWO = valueOf(2);
+    public static final Multiplier TIERED_MULTIPLIER = GinormInt::multiplyMagnitudes;
+    public static final Multiplier NTT_MULTIPLIER = new NttMultiplier();
+    // little-endian limbs of 9 decimal digits each, with no leading zero limbs (zero has none)
+    final int[] limbs;
+    final boolean isNegative;
+    // lazily computed hashCode(); 0 means not computed yet
+    private int hash;
+    // operand sizes, in limbs, where times() switches to Karatsuba, then Toom-3, then NTT
+    private static int karatsubaThreshold = 48;
+    private static int toomCookThreshold = 100;
+    private static int nttThreshold = 12_000;
+    // divisor size, in limbs, where divMod() switches from schoolbook to Burnikel-Ziegler
+    private static final int BURNIKEL_ZIEGLER_THRESHOLD = 80;
+    // exponents and bitwise operands are handled as little-endian unsigned 32-bit words
+    private static final int WORD_BITS = 32;
+    // exponent bit lengths above which pow() and modPow() widen their window by one bit
+    private static final int[] WINDOW_THRESHOLDS = {7, 25, 81, 241, 673, 1793};
+    // factor ranges at most this long are multiplied directly instead of split
+    static final int PRODUCT_LEAF_SIZE = 32;
+
+    /**
+     * Constructor takes in a string, checks for a sign character, and packs
+     * its decimal digits straight into base 10^9 limbs, nine characters at a
+     * time. Any CharSequence works, so a char[] can be parsed without copying
+     * by wrapping it in a java.nio.CharBuffer.
+     *
+     * @param  value  characters to make into a GinormInt
+     */
+    public GinormInt(CharSequence value) {
+        boolean negative = value.length() > 0 && value.charAt(0) == '-';
+        limbs = parseLimbs(value, negative ? 1 : 0, value.length());
+        isNegative = negative && limbs.length > 0;
+    }
+
+    /**
+     * Constructor that parses ASCII digits (with an optional leading '-') from
+     * a byte array, such as a slice of a file read in bulk. The bytes are
+     * packed into limbs directly, without building a String first.
+     *
+     * @param  ascii  bytes holding the number's characters
+     * @param  offset index of the first character
+     * @param  length number of characters
+     */
+    public GinormInt(byte[] ascii, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > ascii.length - length) {
+            throw new IndexOutOfBoundsException("Slice " + offset + "+" + length + " out of " + ascii.length + " bytes");
         }
+        boolean negative = length > 0 && ascii[offset] == '-';
+        limbs = parseLimbs(ascii, negative ? offset + 1 : offset, offset + length);
+        isNegative = negative && limbs.length > 0;
+    }
+
+    /**
+     * Package-private constructor that wraps an already-trimmed limb array,
+     * which must never be modified afterwards.
+     *
+     * @param  limbs      little-endian base 10^9 limbs with no leading zero limbs
+     * @param  isNegative whether the value is negative (ignored for zero)
+     */
+    GinormInt(int[] limbs, boolean isNegative) {
+        this.limbs = limbs;
+        this.isNegative = isNegative && limbs.length > 0;
+    }
+
+    /**
+     * Returns a GinormInt with the given value. Small values come from a shared
+     * cache, so repeated calls return the same instance.
+     *
+     * @param  value long value to make into a GinormInt
+     * @return GinormInt equal to value
+     */
+    public static GinormInt valueOf(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        return new GinormInt(longLimbs(value), value < 0);
     }
 
     /**
@@ -47,45 +112,7 @@ public class GinormInt implements Comparable<GinormInt> {
      * @return GinormInt that's the sum of this GinormInt and the one passed in
      */
     public GinormInt plus(GinormInt otherInt) {
-        if (isNegative && !otherInt.isNegative) {
-            return otherInt.minus(this);
-        } else if (!isNegative && otherInt.isNegative) {
-            return minus(otherInt);
-        }
-        List<Integer> digits1 = new ArrayList<Integer>();
-        List<Integer> digits2 = new ArrayList<Integer>();
-        for (int i = 0; i < digits.length; i += 1) {
-            digits1.add(digits[i]);
-        }
-        for (int i = 0; i < otherInt.digits.length; i += 1) {
-            digits2.add(otherInt.digits[i]);
-        }
-        int longest = digits1.size() > digits2.size() ? digits1.size() : digits2.size();
-        while (digits1.size() < longest) {
-            digits1.add(0, 0);
-        }
-        while (digits2.size() < longest) {
-            digits2.add(0, 0);
-        }
-        String result = "";
-        int carry = 0;
-        for (int i = digits1.size() - 1; i >= 0; i -= 1) {
-            int sum = digits1.get(i) + digits2.get(i) + carry;
-            if (sum > 9) {
-                sum -= 10;
-                carry = 1;
-            } else {
-                carry = 0;
-            }
-            result = String.valueOf(sum) + result;
-            if (i == 0 && carry == 1) {
-                result = "1" + result;
-            }
-        }
-        if (isNegative) {
-            result = "-" + result;
-        }
-        return new GinormInt(result);
+        return add(limbs, isNegative, otherInt.limbs, otherInt.isNegative);
     }
 
     /**
@@ -95,77 +122,64 @@ public class GinormInt implements Comparable<GinormInt> {
      * @return GinormInt that's the difference of this GinormInt and the one passed in
      */
     public GinormInt minus(GinormInt otherInt) {
-        if (isNegative && !otherInt.isNegative) {
-            otherInt.isNegative = true;
-            return plus(otherInt);
-        } else if (!isNegative && otherInt.isNegative) {
-            otherInt.isNegative = false;
-            return plus(otherInt);
-        }
-        String sign = "";
-        GinormInt absInt = new GinormInt(this.toString().substring(this.isNegative ? 1 : 0));
-        GinormInt absOtherInt = new GinormInt(otherInt.toString().substring(otherInt.isNegative ? 1 : 0));
-        List<Integer> digits1 = new ArrayList<Integer>();
-        List<Integer> digits2 = new ArrayList<Integer>();
-        String result = "";
-        if (absInt.compareTo(absOtherInt) > 0) {
-            if (this.isNegative) {
-                sign = "-";
-            }
-            for (int i = 0; i < digits.length; i += 1) {
-                digits1.add(digits[i]);
-            }
-            for (int i = 0; i < otherInt.digits.length; i += 1) {
-                digits2.add(otherInt.digits[i]);
-            }
-        }
-        if (absInt.compareTo(absOtherInt) < 0) {
-            if (!otherInt.isNegative) {
-                sign = "-";
-            }
-            for (int i = 0; i < digits.length; i += 1) {
-                digits2.add(digits[i]);
-            }
-            for (int i = 0; i < otherInt.digits.length; i += 1) {
-                digits1.add(otherInt.digits[i]);
-            }
-        }
-        int longest = digits1.size() > digits2.size() ? digits1.size() : digits2.size();
-        while (digits1.size() < longest) {
-            digits1.add(0, 0);
-        }
-        while (digits2.size() < longest) {
-            digits2.add(0, 0);
-        }
-        int borrow = 0;
-        for (int i = digits1.size() - 1; i >= 0; i -= 1) {
-            if (digits1.get(i) < digits2.get(i)) {
-                digits1.set(i, digits1.get(i) + 10);
-                if (i != 0) {
-                    digits1.set(i - 1, digits1.get(i - 1) - 1);
-                }
-                borrow = 1;
-            } else {
-                borrow = 0;
-            }
-            if (i == 0 && borrow == 1) {
-                result = String.valueOf(digits1.get(i) - digits2.get(i) - 1) + result;
-            } else {
-                result = String.valueOf(digits1.get(i) - digits2.get(i)) + result;
-            }
-        }
-        return new GinormInt(sign + result);
+        return add(limbs, isNegative, otherInt.limbs, !otherInt.isNegative);
     }
 
     /**
      * Method to multiply a GinormInt passed in as an argument to this GinormInt.
+     * Small operands use schoolbook multiplication, medium ones Karatsuba, large
+     * ones Toom-3 and huge ones a number-theoretic transform; see
+     * setMultiplyThresholds() for where the switches happen.
      *
      * @param  otherInt other GinormInt to multiply by this GinormInt
      * @return GinormInt that's the product of this GinormInt and the one passed in
      */
     public GinormInt times(GinormInt otherInt) {
-        // (Optional) your code here
-        throw new UnsupportedOperationException("Sorry, that operation is not yet implemented.");
+        return times(otherInt, TIERED_MULTIPLIER);
+    }
+
+    /**
+     * Method to multiply a GinormInt passed in by this GinormInt, using a
+     * specific multiplication algorithm (for example NTT_MULTIPLIER).
+     *
+     * @param  otherInt   other GinormInt to multiply by this GinormInt
+     * @param  multiplier algorithm that multiplies the two magnitudes
+     * @return GinormInt that's the product of this GinormInt and the one passed in
+     */
+    public GinormInt times(GinormInt otherInt, Multiplier multiplier) {
+        if (limbs.length == 0 || otherInt.limbs.length == 0) {
+            return ZERO;
+        }
+        return new GinormInt(multiplier.multiply(limbs, otherInt.limbs), isNegative != otherInt.isNegative);
+    }
+
+    /**
+     * Tunes where times() switches algorithms. Both thresholds are measured in
+     * limbs (9 decimal digits each) of the shorter operand.
+     *
+     * @param  karatsuba smallest operand size that uses Karatsuba instead of schoolbook
+     * @param  toomCook  smallest operand size that uses Toom-3 instead of Karatsuba
+     */
+    public static void setMultiplyThresholds(int karatsuba, int toomCook) {
+        setMultiplyThresholds(karatsuba, toomCook, Math.max(toomCook, nttThreshold));
+    }
+
+    /**
+     * Tunes where times() switches algorithms, including the number-theoretic
+     * transform used for huge operands. All thresholds are measured in limbs of
+     * the shorter operand.
+     *
+     * @param  karatsuba smallest operand size that uses Karatsuba instead of schoolbook
+     * @param  toomCook  smallest operand size that uses Toom-3 instead of Karatsuba
+     * @param  ntt       smallest operand size that uses NTT_MULTIPLIER instead of Toom-3
+     */
+    public static void setMultiplyThresholds(int karatsuba, int toomCook, int ntt) {
+        if (karatsuba < 2 || toomCook < karatsuba || toomCook < 3 || ntt < toomCook) {
+            throw new IllegalArgumentException("Thresholds must satisfy 2 <= karatsuba <= toomCook <= ntt and toomCook >= 3");
+        }
+        karatsubaThreshold = karatsuba;
+        toomCookThreshold = toomCook;
+        nttThreshold = ntt;
     }
 
     /**
@@ -175,19 +189,319 @@ public class GinormInt implements Comparable<GinormInt> {
      * @return GinormInt that's the (truncated integer) ratio of this GinormInt and the one passed in
      */
     public GinormInt div(GinormInt otherInt) {
-        // (Optional) your code here
-        throw new UnsupportedOperationException("Sorry, that operation is not yet implemented.");
+        return divMod(otherInt)[0];
     }
 
     /**
      * Method to find the remainder after dividing by a GinormInt passed in.
+     * Like Java's % operator, the remainder takes the sign of this GinormInt.
      *
      * @param  otherInt other GinormInt to divide into this GinormInt to compute the remainder
      * @return GinormInt that's the remainder after dividing the two BigInts
      */
     public GinormInt mod(GinormInt otherInt) {
-        // (Optional) your code here
-        throw new UnsupportedOperationException("Sorry, that operation is not yet implemented.");
+        return divMod(otherInt)[1];
+    }
+
+    /**
+     * Method to divide by a GinormInt passed in, getting the quotient and the
+     * remainder from the same long division. Single-limb divisors take a fast
+     * path, medium ones use schoolbook long division and large ones recursive
+     * Burnikel-Ziegler division on top of times().
+     *
+     * @param  otherInt other GinormInt to divide into this GinormInt
+     * @return array holding the truncated quotient and then the remainder
+     */
+    public GinormInt[] divMod(GinormInt otherInt) {
+        if (otherInt.limbs.length == 0) {
+            throw new ArithmeticException("Sorry, can't divide by zero.");
+        }
+        int[][] quotientAndRemainder = divideMagnitudes(limbs, otherInt.limbs);
+        return new GinormInt[] {
+            new GinormInt(quotientAndRemainder[0], isNegative != otherInt.isNegative),
+            new GinormInt(quotientAndRemainder[1], isNegative)
+        };
+    }
+
+    /**
+     * Method to raise this GinormInt to a power, by square-and-multiply over
+     * sliding windows of the exponent's bits.
+     *
+     * @param  exponent non-negative power to raise this GinormInt to
+     * @return GinormInt that's this GinormInt to the given power
+     */
+    public GinormInt pow(int exponent) {
+        if (exponent < 0) {
+            throw new ArithmeticException("Sorry, the exponent can't be negative.");
+        }
+        return slidingWindowPower(this, new int[] {exponent}, value -> value);
+    }
+
+    /**
+     * Method to raise this GinormInt to a power modulo another GinormInt. Each
+     * product is cut back down with Barrett reduction, which swaps the
+     * division for two multiplications by a precomputed reciprocal.
+     *
+     * @param  exponent non-negative power to raise this GinormInt to
+     * @param  modulus  positive modulus
+     * @return GinormInt in [0, modulus) congruent to this GinormInt to the given power
+     */
+    public GinormInt modPow(GinormInt exponent, GinormInt modulus) {
+        if (modulus.isNegative || modulus.limbs.length == 0) {
+            throw new ArithmeticException("Sorry, the modulus must be positive.");
+        } else if (exponent.isNegative) {
+            throw new ArithmeticException("Sorry, the exponent can't be negative.");
+        }
+        GinormInt base = mod(modulus);
+        if (base.isNegative) {
+            base = base.plus(modulus);
+        }
+        int k = modulus.limbs.length;
+        GinormInt reciprocal = new GinormInt(shiftLimbs(ONE.limbs, 2 * k), false).div(modulus);
+        GinormInt result = slidingWindowPower(base, RadixConversion.toWords(exponent),
+            value -> barrettReduce(value, modulus, reciprocal));
+        return result;
+    }
+
+    /**
+     * Method to parse a GinormInt written in any radix from 2 to 36, with an
+     * optional leading '-'. Large inputs are converted divide-and-conquer style.
+     *
+     * @param  text  digits to parse
+     * @param  radix radix of the digits
+     * @return GinormInt with that value
+     */
+    public static GinormInt parse(CharSequence text, int radix) {
+        return RadixConversion.parse(text, radix);
+    }
+
+    /**
+     * Method to return the representation of this GinormInt in any radix from
+     * 2 to 36, using lowercase letters for digits above 9.
+     *
+     * @param  radix radix to write the digits in
+     * @return String representation in that radix
+     */
+    public String toString(int radix) {
+        return RadixConversion.toString(this, radix);
+    }
+
+    /**
+     * Method to build a GinormInt from big-endian two's-complement bytes, the
+     * same format as BigInteger.toByteArray().
+     *
+     * @param  bytes two's-complement bytes, most significant first
+     * @return GinormInt with that value
+     */
+    public static GinormInt fromByteArray(byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Sorry, there are no bytes to read.");
+        }
+        int[] words = new int[(bytes.length + 3) / 4];
+        if (bytes[0] < 0) {
+            Arrays.fill(words, -1);
+        }
+        for (int i = 0; i < bytes.length; i += 1) {
+            int shift = 8 * (i & 3);
+            words[i >>> 2] = (words[i >>> 2] & ~(0xFF << shift)) | ((bytes[bytes.length - 1 - i] & 0xFF) << shift);
+        }
+        return fromTwosComplementWords(words);
+    }
+
+    /**
+     * Method to build a GinormInt from a sign and big-endian magnitude bytes.
+     *
+     * @param  isNegative whether the value is negative
+     * @param  magnitude  unsigned magnitude bytes, most significant first
+     * @return GinormInt with that value
+     */
+    public static GinormInt fromMagnitude(boolean isNegative, byte[] magnitude) {
+        int[] words = new int[(magnitude.length + 3) / 4];
+        for (int i = 0; i < magnitude.length; i += 1) {
+            words[i >>> 2] |= (magnitude[magnitude.length - 1 - i] & 0xFF) << (8 * (i & 3));
+        }
+        GinormInt value = RadixConversion.fromWords(words, 0, words.length);
+        return new GinormInt(value.limbs, isNegative);
+    }
+
+    /**
+     * Method to read a GinormInt written by writeTo(): an int holding the number
+     * of magnitude bytes (negated for negative values), then those bytes.
+     *
+     * @param  buffer buffer positioned at the value; its position is advanced past it
+     * @return GinormInt that was read
+     * @throws IllegalArgumentException if the header doesn't fit the bytes left in the buffer
+     */
+    public static GinormInt readFrom(ByteBuffer buffer) {
+        int header = buffer.getInt();
+        if (header == Integer.MIN_VALUE || Math.abs(header) > buffer.remaining()) {
+            throw new IllegalArgumentException("Sorry, the header says " + header + " bytes but only "
+                + buffer.remaining() + " are left.");
+        }
+        byte[] magnitude = new byte[Math.abs(header)];
+        buffer.get(magnitude);
+        return fromMagnitude(header < 0, magnitude);
+    }
+
+    /**
+     * Method to return this GinormInt as big-endian two's-complement bytes in
+     * the fewest bytes that hold the sign bit, like BigInteger.toByteArray().
+     *
+     * @return two's-complement bytes, most significant first
+     */
+    public byte[] toByteArray() {
+        int[] magnitude = magnitudeWords();
+        int length = bitLength(magnitude, isNegative) / 8 + 1;
+        int[] words = twosComplementWords(magnitude, isNegative, (length + 3) / 4);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i += 1) {
+            bytes[length - 1 - i] = (byte) (words[i >>> 2] >>> (8 * (i & 3)));
+        }
+        return bytes;
+    }
+
+    /**
+     * Method to return the magnitude of this GinormInt as big-endian bytes with
+     * no leading zero bytes (so zero has none).
+     *
+     * @return unsigned magnitude bytes, most significant first
+     */
+    public byte[] toMagnitudeBytes() {
+        int[] words = magnitudeWords();
+        int length = (wordsBitLength(words) + 7) / 8;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i += 1) {
+            bytes[length - 1 - i] = (byte) (words[i >>> 2] >>> (8 * (i & 3)));
+        }
+        return bytes;
+    }
+
+    /**
+     * Method to write this GinormInt into a buffer in the compact form that
+     * readFrom() understands. The header int uses the buffer's byte order.
+     *
+     * @param  buffer buffer to write into; its position is advanced past the value
+     */
+    public void writeTo(ByteBuffer buffer) {
+        byte[] magnitude = toMagnitudeBytes();
+        buffer.putInt(isNegative ? -magnitude.length : magnitude.length);
+        buffer.put(magnitude);
+    }
+
+    /**
+     * Method to multiply this GinormInt by 2^n.
+     *
+     * @param  n number of bits to shift left (a negative n shifts right)
+     * @return GinormInt that's this GinormInt times 2^n
+     * @throws ArithmeticException if n is Integer.MIN_VALUE, which has no positive counterpart
+     */
+    public GinormInt shiftLeft(int n) {
+        checkShift(n);
+        if (n < 0) {
+            return shiftRight(-n);
+        }
+        return n == 0 ? this : times(TWO.pow(n));
+    }
+
+    /**
+     * Method to divide this GinormInt by 2^n, rounding toward negative infinity
+     * like an arithmetic shift on a two's-complement number.
+     *
+     * @param  n number of bits to shift right (a negative n shifts left)
+     * @return GinormInt that's floor(this GinormInt / 2^n)
+     * @throws ArithmeticException if n is Integer.MIN_VALUE, which has no positive counterpart
+     */
+    public GinormInt shiftRight(int n) {
+        checkShift(n);
+        if (n < 0) {
+            return shiftLeft(-n);
+        } else if (n == 0) {
+            return this;
+        }
+        GinormInt[] quotientAndRemainder = divMod(TWO.pow(n));
+        if (isNegative && quotientAndRemainder[1].limbs.length > 0) {
+            return quotientAndRemainder[0].minus(ONE);
+        }
+        return quotientAndRemainder[0];
+    }
+
+    /**
+     * Rejects the one shift distance that can't be negated to switch direction.
+     *
+     * @param  n shift distance
+     */
+    private static void checkShift(int n) {
+        if (n == Integer.MIN_VALUE) {
+            throw new ArithmeticException("Sorry, a shift of Integer.MIN_VALUE isn't supported.");
+        }
+    }
+
+    /**
+     * Method to compute the bitwise AND of this GinormInt and another one, as
+     * infinitely sign-extended two's-complement numbers.
+     *
+     * @param  otherInt other GinormInt
+     * @return GinormInt that's this AND otherInt
+     */
+    public GinormInt and(GinormInt otherInt) {
+        return bitwise(otherInt, '&');
+    }
+
+    /**
+     * Method to compute the bitwise OR of this GinormInt and another one, as
+     * infinitely sign-extended two's-complement numbers.
+     *
+     * @param  otherInt other GinormInt
+     * @return GinormInt that's this OR otherInt
+     */
+    public GinormInt or(GinormInt otherInt) {
+        return bitwise(otherInt, '|');
+    }
+
+    /**
+     * Method to compute the bitwise XOR of this GinormInt and another one, as
+     * infinitely sign-extended two's-complement numbers.
+     *
+     * @param  otherInt other GinormInt
+     * @return GinormInt that's this XOR otherInt
+     */
+    public GinormInt xor(GinormInt otherInt) {
+        return bitwise(otherInt, '^');
+    }
+
+    /**
+     * Method to count the bits in the minimal two's-complement form of this
+     * GinormInt, not counting the sign bit (same as BigInteger.bitLength()).
+     *
+     * @return number of bits
+     */
+    public int bitLength() {
+        return bitLength(magnitudeWords(), isNegative);
+    }
+
+    /**
+     * Multiplies a list of GinormInts together as a balanced product tree, so
+     * most of the work is done on operands of similar size where Karatsuba,
+     * Toom-3 and NTT pay off.
+     *
+     * @param  values GinormInts to multiply
+     * @return GinormInt that's the product of all of them (ONE for an empty list)
+     */
+    public static GinormInt product(List<GinormInt> values) {
+        return product(values, 0, values.size(), TIERED_MULTIPLIER);
+    }
+
+    /**
+     * Computes n! as a balanced product tree over the range 2..n.
+     *
+     * @param  n non-negative integer
+     * @return GinormInt that's n factorial
+     */
+    public static GinormInt factorial(int n) {
+        if (n < 0) {
+            throw new ArithmeticException("Sorry, factorial needs a non-negative argument.");
+        }
+        return productOfRange(2, n, TIERED_MULTIPLIER);
     }
 
     /**
@@ -206,37 +520,40 @@ public class GinormInt implements Comparable<GinormInt> {
         } else if (!isNegative && otherInt.isNegative) {
             return 1;
         }
-        if (digits.length > otherInt.digits.length) {
-            return 1 * negation;
-        } else if (digits.length < otherInt.digits.length) {
-            return -1 * negation;
-        }
-        for (int i = 0; i < digits.length; i += 1) {
-            if (digits[i] > otherInt.digits[i]) {
-                return 1 * negation;
-            } else if (digits[i] < otherInt.digits[i]) {
-                return -1 * negation;
-            }
-        }
-        return 0;
+        return compareMagnitudes(limbs, otherInt.limbs) * negation;
     }
 
     /**
-     * Method to check if this GinormInt equals another GinormInt passed in.
+     * Method to check if this GinormInt equals another object passed in.
      *
-     * @param  otherInt other GinormInt to compare to
-     * @return true if they're equal, false otherwise
+     * @param  other object to compare to
+     * @return true if it's a GinormInt with the same value, false otherwise
      */
-    public boolean equals(GinormInt otherInt) {
-        if (isNegative != otherInt.isNegative) {
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        } else if (!(other instanceof GinormInt)) {
             return false;
         }
-        for (int i = 0; i < digits.length; i += 1) {
-            if (digits[i] != otherInt.digits[i]) {
-                return false;
-            }
+        GinormInt otherInt = (GinormInt) other;
+        return isNegative == otherInt.isNegative && Arrays.equals(limbs, otherInt.limbs);
+    }
+
+    /**
+     * Method to return a hash code consistent with equals(). It's computed on
+     * first use and cached, which is safe because GinormInts never change.
+     *
+     * @return hash code of this GinormInt
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 31 * Arrays.hashCode(limbs) + (isNegative ? 1 : 0);
+            hash = h;
         }
-        return true;
+        return h;
     }
 
     /**
@@ -246,13 +563,941 @@ public class GinormInt implements Comparable<GinormInt> {
      */
     @Override
     public String toString() {
-        String str = "";
+        if (limbs.length == 0) {
+            return "0";
+        }
+        int top = limbs[limbs.length - 1];
+        int topDigits = 1;
+        for (int power = 10; topDigits < BASE_DIGITS && top >= power; power *= 10) {
+            topDigits += 1;
+        }
+        int sign = isNegative ? 1 : 0;
+        char[] str = new char[sign + topDigits + (limbs.length - 1) * BASE_DIGITS];
         if (isNegative) {
-            str += "-";
+            str[0] = '-';
+        }
+        int end = str.length;
+        for (int i = 0; i < limbs.length - 1; i += 1, end -= BASE_DIGITS) {
+            writeLimb(str, end, limbs[i], BASE_DIGITS);
         }
-        for (int i = 0; i < digits.length; i += 1) {
-            str += String.valueOf(digits[i]);
+        writeLimb(str, end, top, topDigits);
+        return new String(str);
+    }
+
+    /**
+     * Splits a long into limbs, treating the magnitude as unsigned so that
+     * Long.MIN_VALUE works too.
+     *
+     * @param  value long value
+     * @return trimmed limbs of |value|
+     */
+    private static int[] longLimbs(long value) {
+        long magnitude = value < 0 ? -value : value;
+        int[] limbs = new int[3];
+        for (int i = 0; magnitude != 0; i += 1) {
+            limbs[i] = (int) Long.remainderUnsigned(magnitude, BASE);
+            magnitude = Long.divideUnsigned(magnitude, BASE);
+        }
+        return trim(limbs);
+    }
+
+    /**
+     * Parses decimal characters into limbs, working from the most significant
+     * chunk down so each limb is built with plain integer arithmetic.
+     *
+     * @param  value characters to parse
+     * @param  start index of the first digit
+     * @param  end   index past the last digit
+     * @return trimmed limbs
+     */
+    private static int[] parseLimbs(CharSequence value, int start, int end) {
+        if (start == end) {
+            throw new IllegalArgumentException("Sorry, all characters must be decimal digit or sign characters.");
+        }
+        int[] limbs = new int[(end - start + BASE_DIGITS - 1) / BASE_DIGITS];
+        int position = start;
+        for (int i = limbs.length - 1; i >= 0; i -= 1) {
+            int limb = 0;
+            for (int chunkEnd = end - i * BASE_DIGITS; position < chunkEnd; position += 1) {
+                int digit = value.charAt(position) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("Sorry, all characters must be decimal digit or sign characters.");
+                }
+                limb = limb * 10 + digit;
+            }
+            limbs[i] = limb;
+        }
+        return trim(limbs);
+    }
+
+    /**
+     * Packs ASCII decimal digits from ascii[start, end) into base 10^9 limbs,
+     * the same way as parseLimbs(CharSequence, int, int).
+     */
+    private static int[] parseLimbs(byte[] ascii, int start, int end) {
+        if (start == end) {
+            throw new IllegalArgumentException("Sorry, all characters must be decimal digit or sign characters.");
+        }
+        int[] limbs = new int[(end - start + BASE_DIGITS - 1) / BASE_DIGITS];
+        int position = start;
+        for (int i = limbs.length - 1; i >= 0; i -= 1) {
+            int limb = 0;
+            for (int chunkEnd = end - i * BASE_DIGITS; position < chunkEnd; position += 1) {
+                int digit = ascii[position] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("Sorry, all characters must be decimal digit or sign characters.");
+                }
+                limb = limb * 10 + digit;
+            }
+            limbs[i] = limb;
+        }
+        return trim(limbs);
+    }
+
+    /**
+     * Writes one limb's digits into a character buffer, right to left.
+     *
+     * @param  str    buffer to write into
+     * @param  end    index just past the limb's last digit
+     * @param  limb   limb value
+     * @param  digits number of digits to write, zero-padding on the left
+     */
+    private static void writeLimb(char[] str, int end, int limb, int digits) {
+        for (int i = end - 1; i >= end - digits; i -= 1) {
+            int quotient = limb / 10;
+            str[i] = (char) ('0' + limb - quotient * 10);
+            limb = quotient;
+        }
+    }
+
+    /**
+     * Adds two signed magnitudes, subtracting the smaller from the larger when
+     * the signs differ. Nothing but the result is allocated.
+     *
+     * @param  a         limbs of the first operand
+     * @param  aNegative sign of the first operand
+     * @param  b         limbs of the second operand
+     * @param  bNegative sign of the second operand
+     * @return GinormInt that's the signed sum
+     */
+    private static GinormInt add(int[] a, boolean aNegative, int[] b, boolean bNegative) {
+        if (b.length == 0) {
+            return new GinormInt(a, aNegative);
+        } else if (a.length == 0) {
+            return new GinormInt(b, bNegative);
+        } else if (aNegative == bNegative) {
+            return new GinormInt(addMagnitudes(a, b), aNegative);
+        }
+        int comparison = compareMagnitudes(a, b);
+        if (comparison == 0) {
+            return ZERO;
+        }
+        return comparison > 0
+            ? new GinormInt(subtractMagnitudes(a, b), aNegative)
+            : new GinormInt(subtractMagnitudes(b, a), bNegative);
+    }
+
+    /**
+     * Compares two magnitudes, ignoring sign.
+     *
+     * @param  a trimmed limbs of the first magnitude
+     * @param  b trimmed limbs of the second magnitude
+     * @return 1 if a is larger, 0 if equal, -1 if it's smaller
+     */
+    private static int compareMagnitudes(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return a.length > b.length ? 1 : -1;
+        }
+        for (int i = a.length - 1; i >= 0; i -= 1) {
+            if (a[i] != b[i]) {
+                return a[i] > b[i] ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Adds two magnitudes into a result array that is sized exactly up front,
+     * by looking ahead from the top limbs to see whether the sum carries out.
+     *
+     * @param  a trimmed limbs of the first magnitude
+     * @param  b trimmed limbs of the second magnitude
+     * @return trimmed limbs of a + b
+     */
+    static int[] addMagnitudes(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] result = new int[carriesOut(a, b) ? a.length + 1 : a.length];
+        int carry = 0;
+        int i = 0;
+        for (; i < b.length; i += 1) {
+            int sum = a[i] + b[i] + carry;
+            carry = sum >= BASE ? 1 : 0;
+            result[i] = sum - carry * BASE;
+        }
+        for (; i < a.length; i += 1) {
+            int sum = a[i] + carry;
+            carry = sum >= BASE ? 1 : 0;
+            result[i] = sum - carry * BASE;
+        }
+        if (carry != 0) {
+            result[i] = carry;
+        }
+        return result;
+    }
+
+    /**
+     * Decides whether a + b needs one more limb than a, where a is at least as
+     * long as b. The scan stops at the first limb that settles the question,
+     * so it's usually constant time.
+     *
+     * @param  a the longer magnitude
+     * @param  b the shorter magnitude
+     * @return true if the sum carries out of the top limb of a
+     */
+    private static boolean carriesOut(int[] a, int[] b) {
+        for (int i = a.length - 1; i >= 0; i -= 1) {
+            int sum = a[i] + (i < b.length ? b[i] : 0);
+            if (sum != BASE - 1) {
+                return sum >= BASE;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subtracts a magnitude from one at least as large. The result is sized to
+     * skip any top limbs the two share; it only has to be trimmed again when a
+     * borrow clears the top limb.
+     *
+     * @param  a trimmed limbs of the larger magnitude
+     * @param  b trimmed limbs of the magnitude to take away, no larger than a
+     * @return trimmed limbs of a - b
+     */
+    static int[] subtractMagnitudes(int[] a, int[] b) {
+        int length = a.length;
+        if (length == b.length) {
+            while (length > 0 && a[length - 1] == b[length - 1]) {
+                length -= 1;
+            }
+        }
+        int[] result = new int[length];
+        int borrow = 0;
+        int i = 0;
+        for (int shared = Math.min(b.length, length); i < shared; i += 1) {
+            int difference = a[i] - b[i] - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            result[i] = difference + borrow * BASE;
+        }
+        for (; i < length; i += 1) {
+            int difference = a[i] - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            result[i] = difference + borrow * BASE;
+        }
+        return trim(result);
+    }
+
+    /**
+     * Multiplies two magnitudes, picking the algorithm by the size of the
+     * shorter one. Very lopsided operands are cut into balanced pieces first.
+     * Products too long for one transform stay on Toom-3, whose pieces drop
+     * back under the NTT limit.
+     *
+     * @param  a trimmed limbs of the first magnitude
+     * @param  b trimmed limbs of the second magnitude
+     * @return trimmed limbs of a * b
+     */
+    private static int[] multiplyMagnitudes(int[] a, int[] b) {
+        if (a.length < b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (b.length == 0) {
+            return b;
+        } else if (b.length < karatsubaThreshold) {
+            return multiplySchoolbook(a, b);
+        } else if (b.length >= nttThreshold && a.length + b.length <= NttMultiplier.MAX_LENGTH) {
+            return NTT_MULTIPLIER.multiply(a, b);
+        } else if (a.length >= 2 * b.length) {
+            return multiplyUnbalanced(a, b);
+        } else if (b.length < toomCookThreshold) {
+            return multiplyKaratsuba(a, b);
+        }
+        return multiplyToomCook3(a, b);
+    }
+
+    /**
+     * Classic O(n*m) long multiplication, one row per limb of a.
+     *
+     * @param  a trimmed limbs of the first magnitude
+     * @param  b trimmed limbs of the second magnitude
+     * @return trimmed limbs of a * b
+     */
+    private static int[] multiplySchoolbook(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        for (int i = 0; i < a.length; i += 1) {
+            long multiplier = a[i];
+            if (multiplier == 0) {
+                continue;
+            }
+            long carry = 0;
+            for (int j = 0; j < b.length; j += 1) {
+                long product = multiplier * b[j] + result[i + j] + carry;
+                carry = product / BASE;
+                result[i + j] = (int) (product - carry * BASE);
+            }
+            result[i + b.length] = (int) carry;
+        }
+        return trim(result);
+    }
+
+    /**
+     * Multiplies a long magnitude by a much shorter one by slicing the long one
+     * into pieces the size of the short one, so each partial product is balanced.
+     *
+     * @param  a trimmed limbs of the longer magnitude
+     * @param  b trimmed limbs of the shorter magnitude
+     * @return trimmed limbs of a * b
+     */
+    private static int[] multiplyUnbalanced(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        for (int offset = 0; offset < a.length; offset += b.length) {
+            int[] piece = slice(a, offset, offset + b.length);
+            addShifted(result, multiplyMagnitudes(piece, b), offset);
+        }
+        return trim(result);
+    }
+
+    /**
+     * Karatsuba multiplication: splits each operand in half and gets by with
+     * three half-size products instead of four.
+     *
+     * @param  a trimmed limbs of the first magnitude
+     * @param  b trimmed limbs of the second magnitude
+     * @return trimmed limbs of a * b
+     */
+    private static int[] multiplyKaratsuba(int[] a, int[] b) {
+        int half = (Math.max(a.length, b.length) + 1) / 2;
+        int[] a0 = slice(a, 0, half);
+        int[] a1 = slice(a, half, a.length);
+        int[] b0 = slice(b, 0, half);
+        int[] b1 = slice(b, half, b.length);
+        int[] z0 = multiplyMagnitudes(a0, b0);
+        int[] z2 = multiplyMagnitudes(a1, b1);
+        int[] z1 = multiplyMagnitudes(addMagnitudes(a0, a1), addMagnitudes(b0, b1));
+        z1 = subtractMagnitudes(subtractMagnitudes(z1, z0), z2);
+        int[] result = new int[a.length + b.length + 1];
+        addShifted(result, z0, 0);
+        addShifted(result, z1, half);
+        addShifted(result, z2, 2 * half);
+        return trim(result);
+    }
+
+    /**
+     * Toom-3 multiplication: splits each operand into thirds, evaluates them as
+     * polynomials at 0, 1, -1, -2 and infinity, multiplies the five values and
+     * interpolates the product back (Bodrato's sequence). The evaluations can go
+     * negative, so this works on signed GinormInts.
+     *
+     * @param  a trimmed limbs of the first magnitude
+     * @param  b trimmed limbs of the second magnitude
+     * @return trimmed limbs of a * b
+     */
+    private static int[] multiplyToomCook3(int[] a, int[] b) {
+        int third = (Math.max(a.length, b.length) + 2) / 3;
+        GinormInt a0 = new GinormInt(slice(a, 0, third), false);
+        GinormInt a1 = new GinormInt(slice(a, third, 2 * third), false);
+        GinormInt a2 = new GinormInt(slice(a, 2 * third, a.length), false);
+        GinormInt b0 = new GinormInt(slice(b, 0, third), false);
+        GinormInt b1 = new GinormInt(slice(b, third, 2 * third), false);
+        GinormInt b2 = new GinormInt(slice(b, 2 * third, b.length), false);
+
+        GinormInt aSum = a0.plus(a2);
+        GinormInt aAtOne = aSum.plus(a1);
+        GinormInt aAtMinusOne = aSum.minus(a1);
+        GinormInt aAtMinusTwo = aAtMinusOne.plus(a2);
+        aAtMinusTwo = aAtMinusTwo.plus(aAtMinusTwo).minus(a0);
+        GinormInt bSum = b0.plus(b2);
+        GinormInt bAtOne = bSum.plus(b1);
+        GinormInt bAtMinusOne = bSum.minus(b1);
+        GinormInt bAtMinusTwo = bAtMinusOne.plus(b2);
+        bAtMinusTwo = bAtMinusTwo.plus(bAtMinusTwo).minus(b0);
+
+        GinormInt r0 = a0.times(b0);
+        GinormInt r1 = aAtOne.times(bAtOne);
+        GinormInt rMinusOne = aAtMinusOne.times(bAtMinusOne);
+        GinormInt rMinusTwo = aAtMinusTwo.times(bAtMinusTwo);
+        GinormInt r4 = a2.times(b2);
+
+        GinormInt r3 = divideExactly(rMinusTwo.minus(r1), 3);
+        r1 = divideExactly(r1.minus(rMinusOne), 2);
+        GinormInt r2 = rMinusOne.minus(r0);
+        r3 = divideExactly(r2.minus(r3), 2).plus(r4).plus(r4);
+        r2 = r2.plus(r1).minus(r4);
+        r1 = r1.minus(r3);
+
+        int[] result = new int[a.length + b.length + 1];
+        addShifted(result, r0.limbs, 0);
+        addShifted(result, r1.limbs, third);
+        addShifted(result, r2.limbs, 2 * third);
+        addShifted(result, r3.limbs, 3 * third);
+        addShifted(result, r4.limbs, 4 * third);
+        return trim(result);
+    }
+
+    /**
+     * Divides a GinormInt by a small divisor that's known to divide it evenly.
+     *
+     * @param  value   GinormInt to divide
+     * @param  divisor positive divisor below BASE
+     * @return GinormInt that's value / divisor
+     */
+    private static GinormInt divideExactly(GinormInt value, int divisor) {
+        int[] quotient = new int[value.limbs.length];
+        divideBySmall(value.limbs, divisor, quotient);
+        return new GinormInt(trim(quotient), value.isNegative);
+    }
+
+    /**
+     * Divides one magnitude by another, picking the algorithm by divisor size.
+     *
+     * @param  a trimmed limbs of the dividend
+     * @param  b trimmed limbs of the divisor, not zero
+     * @return trimmed limbs of the quotient and of the remainder
+     */
+    private static int[][] divideMagnitudes(int[] a, int[] b) {
+        if (compareMagnitudes(a, b) < 0) {
+            return new int[][] {new int[0], a};
+        } else if (b.length == 1) {
+            int[] quotient = new int[a.length];
+            int remainder = divideBySmall(a, b[0], quotient);
+            return new int[][] {trim(quotient), remainder == 0 ? new int[0] : new int[] {remainder}};
+        } else if (b.length < BURNIKEL_ZIEGLER_THRESHOLD) {
+            return divideSchoolbook(a, b);
+        }
+        return divideBurnikelZiegler(a, b);
+    }
+
+    /**
+     * Knuth's Algorithm D: schoolbook long division one quotient limb at a time,
+     * after scaling both operands so the divisor's top limb is at least BASE / 2,
+     * which keeps each estimated quotient limb within two of the real one.
+     *
+     * @param  a trimmed limbs of the dividend
+     * @param  b trimmed limbs of the divisor, at least two limbs long
+     * @return trimmed limbs of the quotient and of the remainder
+     */
+    private static int[][] divideSchoolbook(int[] a, int[] b) {
+        int n = b.length;
+        int m = a.length - n;
+        int scale = BASE / (b[n - 1] + 1);
+        int[] u = multiplyBySmall(a, scale, a.length + 1);
+        int[] v = multiplyBySmall(b, scale, n);
+        long top = v[n - 1];
+        long second = v[n - 2];
+        int[] quotient = new int[m + 1];
+        for (int j = m; j >= 0; j -= 1) {
+            long numerator = u[j + n] * (long) BASE + u[j + n - 1];
+            long estimate = numerator / top;
+            long remainder = numerator - estimate * top;
+            while (estimate >= BASE || estimate * second > remainder * BASE + u[j + n - 2]) {
+                estimate -= 1;
+                remainder += top;
+                if (remainder >= BASE) {
+                    break;
+                }
+            }
+            long carry = 0;
+            long borrow = 0;
+            for (int i = 0; i < n; i += 1) {
+                long product = estimate * v[i] + carry;
+                carry = product / BASE;
+                long difference = u[i + j] - (product - carry * BASE) - borrow;
+                borrow = difference < 0 ? 1 : 0;
+                u[i + j] = (int) (difference + borrow * BASE);
+            }
+            long difference = u[j + n] - carry - borrow;
+            if (difference < 0) {
+                // the estimate was one too big, so add the divisor back
+                estimate -= 1;
+                int addCarry = 0;
+                for (int i = 0; i < n; i += 1) {
+                    int sum = u[i + j] + v[i] + addCarry;
+                    addCarry = sum >= BASE ? 1 : 0;
+                    u[i + j] = sum - addCarry * BASE;
+                }
+                difference += addCarry;
+            }
+            u[j + n] = (int) difference;
+            quotient[j] = (int) estimate;
+        }
+        int[] remainder = new int[n];
+        divideBySmall(trim(Arrays.copyOf(u, n)), scale, remainder);
+        return new int[][] {trim(quotient), trim(remainder)};
+    }
+
+    /**
+     * Burnikel-Ziegler recursive division. The divisor is scaled and padded to
+     * a block of n limbs (n a power of two times a small base size), then the
+     * dividend is consumed two blocks at a time with divideTwoBlocks(), which
+     * recursively turns each step into half-size divisions and multiplications.
+     *
+     * @param  a trimmed limbs of the dividend, at least as large as b
+     * @param  b trimmed limbs of the divisor
+     * @return trimmed limbs of the quotient and of the remainder
+     */
+    private static int[][] divideBurnikelZiegler(int[] a, int[] b) {
+        int s = b.length;
+        int blocks = 1 << (32 - Integer.numberOfLeadingZeros(s / BURNIKEL_ZIEGLER_THRESHOLD));
+        int n = (s + blocks - 1) / blocks * blocks;
+        int scale = BASE / (b[s - 1] + 1);
+        int padding = n - s;
+        GinormInt divisor = new GinormInt(shiftLimbs(multiplyBySmall(b, scale, s), padding), false);
+        int[] dividend = shiftLimbs(trim(multiplyBySmall(a, scale, a.length + 1)), padding);
+        int t = Math.max(2, dividend.length / n + 1);
+
+        int[] quotient = new int[(t - 1) * n];
+        GinormInt remainder = new GinormInt(slice(dividend, (t - 2) * n, t * n), false);
+        for (int i = t - 2; i >= 0; i -= 1) {
+            GinormInt[] step = divideTwoBlocks(remainder, divisor, n);
+            System.arraycopy(step[0].limbs, 0, quotient, i * n, step[0].limbs.length);
+            remainder = step[1];
+            if (i > 0) {
+                int[] next = slice(dividend, (i - 1) * n, i * n);
+                remainder = new GinormInt(shiftLimbs(remainder.limbs, n), false).plus(new GinormInt(next, false));
+            }
+        }
+        int[] unscaled = new int[remainder.limbs.length];
+        divideBySmall(slice(remainder.limbs, padding, remainder.limbs.length), scale, unscaled);
+        return new int[][] {trim(quotient), trim(unscaled)};
+    }
+
+    /**
+     * Divides a value of up to 2n limbs by an n-limb normalized divisor, where
+     * the quotient is known to fit in n limbs.
+     *
+     * @param  a non-negative dividend below b * BASE^n
+     * @param  b normalized divisor of exactly n limbs
+     * @param  n block size in limbs
+     * @return quotient and remainder
+     */
+    private static GinormInt[] divideTwoBlocks(GinormInt a, GinormInt b, int n) {
+        if (n % 2 == 1 || n < BURNIKEL_ZIEGLER_THRESHOLD) {
+            if (compareMagnitudes(a.limbs, b.limbs) < 0) {
+                return new GinormInt[] {ZERO, a};
+            }
+            int[][] result = divideSchoolbook(a.limbs, b.limbs);
+            return new GinormInt[] {new GinormInt(result[0], false), new GinormInt(result[1], false)};
+        }
+        int half = n / 2;
+        GinormInt[] upper = divideThreeHalves(new GinormInt(slice(a.limbs, 2 * half, a.limbs.length), false),
+            new GinormInt(slice(a.limbs, half, 2 * half), false), b, half);
+        GinormInt[] lower = divideThreeHalves(upper[1], new GinormInt(slice(a.limbs, 0, half), false), b, half);
+        lower[0] = new GinormInt(shiftLimbs(upper[0].limbs, half), false).plus(lower[0]);
+        return lower;
+    }
+
+    /**
+     * Divides (a12 * BASE^half + a3) by a 2*half-limb normalized divisor, where
+     * a12 has at most 2*half limbs and the quotient fits in half limbs. The
+     * quotient is estimated from the divisor's top half and then corrected.
+     *
+     * @param  a12  upper two thirds of the dividend
+     * @param  a3   lowest third of the dividend, below BASE^half
+     * @param  b    normalized divisor of exactly 2*half limbs
+     * @param  half size of each third in limbs
+     * @return quotient and remainder
+     */
+    private static GinormInt[] divideThreeHalves(GinormInt a12, GinormInt a3, GinormInt b, int half) {
+        GinormInt b1 = new GinormInt(slice(b.limbs, half, b.limbs.length), false);
+        GinormInt b2 = new GinormInt(slice(b.limbs, 0, half), false);
+        GinormInt quotient;
+        GinormInt remainder;
+        if (compareMagnitudes(slice(a12.limbs, half, a12.limbs.length), b1.limbs) < 0) {
+            GinormInt[] estimate = divideTwoBlocks(a12, b1, half);
+            quotient = estimate[0];
+            remainder = estimate[1];
+        } else {
+            // the quotient's top is capped at BASE^half - 1
+            quotient = new GinormInt(shiftLimbs(ONE.limbs, half), false).minus(ONE);
+            remainder = a12.minus(new GinormInt(shiftLimbs(b1.limbs, half), false)).plus(b1);
+        }
+        remainder = new GinormInt(shiftLimbs(remainder.limbs, half), remainder.isNegative)
+            .plus(a3).minus(quotient.times(b2));
+        while (remainder.isNegative) {
+            remainder = remainder.plus(b);
+            quotient = quotient.minus(ONE);
+        }
+        return new GinormInt[] {quotient, remainder};
+    }
+
+    /**
+     * Multiplies values[from, to) together by splitting the range in half.
+     *
+     * @param  values     GinormInts to multiply
+     * @param  from       index of the first value
+     * @param  to         index past the last value
+     * @param  multiplier algorithm for each product
+     * @return GinormInt that's the product of the range
+     */
+    static GinormInt product(List<GinormInt> values, int from, int to, Multiplier multiplier) {
+        if (to - from <= 1) {
+            return to == from ? ONE : values.get(from);
+        }
+        int middle = (from + to) >>> 1;
+        return product(values, from, middle, multiplier).times(product(values, middle, to, multiplier), multiplier);
+    }
+
+    /**
+     * Multiplies the integers from..to together by splitting the range in half.
+     * Short ranges are multiplied in a long, limb by limb.
+     *
+     * @param  from       first factor
+     * @param  to         last factor
+     * @param  multiplier algorithm for each product
+     * @return GinormInt that's the product of the range (ONE if it's empty)
+     */
+    static GinormInt productOfRange(long from, long to, Multiplier multiplier) {
+        if (to - from < PRODUCT_LEAF_SIZE) {
+            GinormInt result = ONE;
+            long partial = 1;
+            for (long factor = from; factor <= to; factor += 1) {
+                if (partial > Long.MAX_VALUE / factor) {
+                    result = result.times(valueOf(partial));
+                    partial = 1;
+                }
+                partial *= factor;
+            }
+            return result.times(valueOf(partial));
+        }
+        long middle = (from + to) >>> 1;
+        return productOfRange(from, middle, multiplier).times(productOfRange(middle + 1, to, multiplier), multiplier);
+    }
+
+    /**
+     * Returns this GinormInt without its sign.
+     *
+     * @return GinormInt with the same magnitude that isn't negative
+     */
+    private GinormInt abs() {
+        return isNegative ? new GinormInt(limbs, false) : this;
+    }
+
+    /**
+     * Applies a bitwise operator to the two's-complement forms of two
+     * GinormInts, with one extra word so the sign survives.
+     *
+     * @param  otherInt other GinormInt
+     * @param  operator '&', '|' or '^'
+     * @return GinormInt result
+     */
+    private GinormInt bitwise(GinormInt otherInt, char operator) {
+        int[] magnitude = magnitudeWords();
+        int[] otherMagnitude = otherInt.magnitudeWords();
+        int length = Math.max(magnitude.length, otherMagnitude.length) + 1;
+        int[] words = twosComplementWords(magnitude, isNegative, length);
+        int[] otherWords = twosComplementWords(otherMagnitude, otherInt.isNegative, length);
+        for (int i = 0; i < length; i += 1) {
+            if (operator == '&') {
+                words[i] &= otherWords[i];
+            } else if (operator == '|') {
+                words[i] |= otherWords[i];
+            } else {
+                words[i] ^= otherWords[i];
+            }
+        }
+        return fromTwosComplementWords(words);
+    }
+
+    /**
+     * Converts the magnitude of this GinormInt into 32-bit words. This is the
+     * expensive base conversion, so callers do it once and derive lengths and
+     * bytes from the result.
+     *
+     * @return little-endian unsigned words with no leading zero words
+     */
+    private int[] magnitudeWords() {
+        return RadixConversion.toWords(abs());
+    }
+
+    /**
+     * Counts the bits in the minimal two's-complement form of a signed
+     * magnitude, not counting the sign bit. A negative value -m needs as many
+     * bits as m - 1, which is one fewer than m exactly when m is a power of two.
+     *
+     * @param  magnitude  little-endian unsigned words with no leading zero words
+     * @param  isNegative whether the value is negative
+     * @return number of bits
+     */
+    private static int bitLength(int[] magnitude, boolean isNegative) {
+        int bits = wordsBitLength(magnitude);
+        if (!isNegative || bits == 0 || Integer.bitCount(magnitude[magnitude.length - 1]) != 1) {
+            return bits;
+        }
+        for (int i = 0; i < magnitude.length - 1; i += 1) {
+            if (magnitude[i] != 0) {
+                return bits;
+            }
+        }
+        return bits - 1;
+    }
+
+    /**
+     * Turns a magnitude in 32-bit words into sign-extended two's-complement words.
+     *
+     * @param  magnitude  little-endian unsigned words
+     * @param  isNegative whether to negate
+     * @param  length     number of words, enough to hold the value and its sign bit
+     * @return little-endian two's-complement words
+     */
+    private static int[] twosComplementWords(int[] magnitude, boolean isNegative, int length) {
+        int[] words = Arrays.copyOf(magnitude, length);
+        if (isNegative) {
+            negateWords(words);
+        }
+        return words;
+    }
+
+    /**
+     * Builds a GinormInt from sign-extended two's-complement 32-bit words.
+     *
+     * @param  words little-endian two's-complement words (modified in place)
+     * @return GinormInt with that value
+     */
+    private static GinormInt fromTwosComplementWords(int[] words) {
+        boolean negative = words[words.length - 1] < 0;
+        if (negative) {
+            negateWords(words);
+        }
+        GinormInt magnitude = RadixConversion.fromWords(words, 0, words.length);
+        return new GinormInt(magnitude.limbs, negative);
+    }
+
+    /**
+     * Negates two's-complement words in place: invert every bit, then add one.
+     *
+     * @param  words little-endian words
+     */
+    private static void negateWords(int[] words) {
+        boolean carry = true;
+        for (int i = 0; i < words.length; i += 1) {
+            words[i] = ~words[i];
+            if (carry) {
+                words[i] += 1;
+                carry = words[i] == 0;
+            }
+        }
+    }
+
+    /**
+     * Left-to-right sliding-window exponentiation. Runs of zero bits cost one
+     * squaring each, and each window of up to k bits that starts and ends with
+     * a one costs one multiplication by a precomputed odd power.
+     *
+     * @param  base     value to raise
+     * @param  exponent exponent as little-endian unsigned 32-bit words
+     * @param  reduce   applied after every product (identity for plain powers)
+     * @return base to the given power, reduced
+     */
+    private static GinormInt slidingWindowPower(GinormInt base, int[] exponent, UnaryOperator<GinormInt> reduce) {
+        int bits = wordsBitLength(exponent);
+        if (bits == 0) {
+            return reduce.apply(ONE);
+        }
+        int window = 1;
+        while (window <= WINDOW_THRESHOLDS.length && bits > WINDOW_THRESHOLDS[window - 1]) {
+            window += 1;
+        }
+        GinormInt[] oddPowers = new GinormInt[1 << (window - 1)];
+        oddPowers[0] = base;
+        if (oddPowers.length > 1) {
+            GinormInt square = reduce.apply(base.times(base));
+            for (int i = 1; i < oddPowers.length; i += 1) {
+                oddPowers[i] = reduce.apply(oddPowers[i - 1].times(square));
+            }
+        }
+        GinormInt result = null;
+        for (int i = bits - 1; i >= 0;) {
+            if (!testBit(exponent, i)) {
+                result = reduce.apply(result.times(result));
+                i -= 1;
+                continue;
+            }
+            int low = Math.max(i - window + 1, 0);
+            while (!testBit(exponent, low)) {
+                low += 1;
+            }
+            int value = 0;
+            for (int j = i; j >= low; j -= 1) {
+                value = (value << 1) | (testBit(exponent, j) ? 1 : 0);
+                if (result != null) {
+                    result = reduce.apply(result.times(result));
+                }
+            }
+            GinormInt odd = oddPowers[value >>> 1];
+            result = result == null ? odd : reduce.apply(result.times(odd));
+            i = low - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Barrett reduction of a non-negative value below BASE^(2k), where the
+     * modulus has k limbs and reciprocal is floor(BASE^(2k) / modulus). The
+     * estimated quotient is at most two short, so at most two subtractions fix it.
+     *
+     * @param  value      non-negative value to reduce, below BASE^(2k)
+     * @param  modulus    positive modulus of k limbs
+     * @param  reciprocal floor(BASE^(2k) / modulus)
+     * @return value mod modulus
+     */
+    private static GinormInt barrettReduce(GinormInt value, GinormInt modulus, GinormInt reciprocal) {
+        int k = modulus.limbs.length;
+        if (compareMagnitudes(value.limbs, modulus.limbs) < 0) {
+            return value;
+        }
+        GinormInt estimate = new GinormInt(slice(value.limbs, k - 1, value.limbs.length), false).times(reciprocal);
+        estimate = new GinormInt(slice(estimate.limbs, k + 1, estimate.limbs.length), false);
+        GinormInt remainder = value.minus(estimate.times(modulus));
+        while (remainder.compareTo(modulus) >= 0) {
+            remainder = remainder.minus(modulus);
+        }
+        return remainder;
+    }
+
+    /**
+     * Counts the bits of a number stored as 32-bit words, up to its top one bit.
+     *
+     * @param  words little-endian unsigned 32-bit words
+     * @return number of significant bits
+     */
+    private static int wordsBitLength(int[] words) {
+        for (int i = words.length - 1; i >= 0; i -= 1) {
+            if (words[i] != 0) {
+                return i * WORD_BITS + WORD_BITS - Integer.numberOfLeadingZeros(words[i]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads one bit of a number stored as 32-bit words.
+     *
+     * @param  words little-endian unsigned 32-bit words
+     * @param  bit   index of the bit, 0 being least significant
+     * @return true if the bit is set
+     */
+    private static boolean testBit(int[] words, int bit) {
+        return (words[bit / WORD_BITS] >>> (bit % WORD_BITS) & 1) != 0;
+    }
+
+    /**
+     * Multiplies a magnitude by a single-limb factor.
+     *
+     * @param  a      trimmed limbs
+     * @param  factor non-negative factor below BASE
+     * @param  length length of the (untrimmed) result, enough to hold the product
+     * @return limbs of a * factor
+     */
+    private static int[] multiplyBySmall(int[] a, int factor, int length) {
+        int[] result = new int[length];
+        long carry = 0;
+        for (int i = 0; i < a.length; i += 1) {
+            long product = a[i] * (long) factor + carry;
+            carry = product / BASE;
+            result[i] = (int) (product - carry * BASE);
+        }
+        if (carry != 0) {
+            result[a.length] = (int) carry;
+        }
+        return result;
+    }
+
+    /**
+     * Multiplies a magnitude by BASE^count by prepending zero limbs.
+     *
+     * @param  a     trimmed limbs
+     * @param  count number of limbs to shift by
+     * @return trimmed limbs of a * BASE^count
+     */
+    private static int[] shiftLimbs(int[] a, int count) {
+        if (a.length == 0 || count == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + count];
+        System.arraycopy(a, 0, result, count, a.length);
+        return result;
+    }
+
+    /**
+     * Divides a magnitude by a single-limb divisor, top limb first.
+     *
+     * @param  a        trimmed limbs of the dividend
+     * @param  divisor  positive divisor below BASE
+     * @param  quotient array at least as long as a to receive the (untrimmed) quotient
+     * @return the remainder
+     */
+    private static int divideBySmall(int[] a, int divisor, int[] quotient) {
+        long remainder = 0;
+        for (int i = a.length - 1; i >= 0; i -= 1) {
+            long current = remainder * BASE + a[i];
+            quotient[i] = (int) (current / divisor);
+            remainder = current - quotient[i] * (long) divisor;
+        }
+        return (int) remainder;
+    }
+
+    /**
+     * Adds a magnitude into an accumulator starting at the given limb offset.
+     * The accumulator must be long enough to absorb the final carry.
+     *
+     * @param  result accumulator limbs, updated in place
+     * @param  value  trimmed limbs to add
+     * @param  offset limb position where value's lowest limb lands
+     */
+    static void addShifted(int[] result, int[] value, int offset) {
+        int carry = 0;
+        int i = 0;
+        for (; i < value.length; i += 1) {
+            int sum = result[offset + i] + value[i] + carry;
+            carry = sum >= BASE ? 1 : 0;
+            result[offset + i] = sum - carry * BASE;
+        }
+        for (int j = offset + i; carry != 0; j += 1) {
+            int sum = result[j] + carry;
+            carry = sum >= BASE ? 1 : 0;
+            result[j] = sum - carry * BASE;
+        }
+    }
+
+    /**
+     * Copies out limbs [from, to) of a magnitude, clamped to its length.
+     *
+     * @param  a    trimmed limbs
+     * @param  from index of the first limb to copy
+     * @param  to   index past the last limb to copy
+     * @return trimmed limbs of the slice
+     */
+    static int[] slice(int[] a, int from, int to) {
+        from = Math.min(from, a.length);
+        return trim(Arrays.copyOfRange(a, from, Math.max(from, Math.min(to, a.length))));
+    }
+
+    /**
+     * Drops leading zero limbs, returning the same array if there are none.
+     *
+     * @param  limbs little-endian limbs that may have leading zeros
+     * @return limbs without leading zeros
+     */
+    static int[] trim(int[] limbs) {
+        int length = limbs.length;
+        while (length > 0 && limbs[length - 1] == 0) {
+            length -= 1;
         }
-        return str;
+        return length == limbs.length ? limbs : Arrays.copyOf(limbs, length);
     }
 }
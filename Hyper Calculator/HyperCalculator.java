@@ -0,0 +1,138 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Filename: HyperCalculator.java
+ * Description: Command-line front end for Expression. It compiles one expression
+ *              and then streams newline-delimited variable bindings through it,
+ *              one result per line. Only the current line is held in memory,
+ *              and steps whose inputs didn't change since the previous line are
+ *              not recomputed.
+ */
+public class HyperCalculator {
+
+    /**
+     * Compiles args[0] and evaluates it against each line of args[1] (or of
+     * standard input when there's no second argument).
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            displayUsageMessage();
+            return;
+        }
+        try {
+            Expression expression = Expression.compile(args[0]);
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            if (expression.getVariables().isEmpty()) {
+                out.write(expression.evaluate().toString());
+                out.write('\n');
+            } else {
+                try (BufferedReader in = args.length == 2
+                        ? Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)
+                        : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)) {
+                    evaluateLines(expression, in, out);
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Sorry, couldn't read input: " + e.getMessage());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates an expression once per input line and writes one result line
+     * per input line. Each line binds variables as name=value pairs separated by
+     * spaces or commas, e.g. "a=12 b=-7, c=40". A variable left out of a line
+     * keeps its value from the line before. Blank lines and lines starting with
+     * '#' bind nothing and produce an empty output line. A line that can't be
+     * parsed or evaluated is reported on standard error, changes no bindings,
+     * and also produces an empty output line, so output line n always belongs
+     * to input line n.
+     *
+     * @param  expression compiled expression
+     * @param  in         source of binding lines
+     * @param  out        destination for results
+     * @throws IOException if reading or writing fails
+     */
+    public static void evaluateLines(Expression expression, BufferedReader in, Writer out) throws IOException {
+        List<String> variables = expression.getVariables();
+        GinormInt[] arguments = new GinormInt[variables.size()];
+        GinormInt[] scratch = new GinormInt[variables.size()];
+        String line;
+        for (int lineNumber = 1; (line = in.readLine()) != null; lineNumber++) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+                out.write('\n');
+                continue;
+            }
+            try {
+                // bind and evaluate a copy, so a line that fails either way leaves the bindings untouched
+                System.arraycopy(arguments, 0, scratch, 0, arguments.length);
+                bind(trimmed, variables, scratch);
+                String result = expression.evaluate(scratch).toString();
+                System.arraycopy(scratch, 0, arguments, 0, arguments.length);
+                out.write(result);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                System.err.println("Line " + lineNumber + ": " + e.getMessage());
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Parses the name=value pairs on one line into the argument slots.
+     */
+    private static void bind(String line, List<String> variables, GinormInt[] arguments) {
+        int position = 0;
+        while (position < line.length()) {
+            char c = line.charAt(position);
+            if (c == ' ' || c == '\t' || c == ',') {
+                position++;
+                continue;
+            }
+            int equals = line.indexOf('=', position);
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value but got \"" + line.substring(position) + "\"");
+            }
+            String name = line.substring(position, equals).trim();
+            int slot = variables.indexOf(name);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown variable " + name);
+            }
+            int end = equals + 1;
+            while (end < line.length() && line.charAt(end) == ' ') {
+                end++;
+            }
+            int start = end;
+            while (end < line.length() && line.charAt(end) != ' ' && line.charAt(end) != '\t' && line.charAt(end) != ',') {
+                end++;
+            }
+            arguments[slot] = new GinormInt(line.subSequence(start, end));
+            position = end;
+        }
+    }
+
+    /**
+     * Displays a usage message.
+     */
+    private static void displayUsageMessage() {
+        System.out.println("Usage: java HyperCalculator <expression> [inputFile]");
+        System.out.println();
+        System.out.println("Each input line binds the expression's variables, for example:");
+        System.out.println();
+        System.out.println("    java HyperCalculator \"(a*b+c) % d\" bindings.txt");
+        System.out.println();
+        System.out.println("where bindings.txt holds lines like \"a=123 b=456 c=7 d=1000000007\".");
+        System.out.println("Input is read from standard input when no file is given.");
+    }
+}
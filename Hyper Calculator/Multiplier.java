@@ -0,0 +1,18 @@
+/**
+ * Filename: Multiplier.java
+ * Description: Strategy interface for multiplying GinormInt magnitudes, so
+ *              multiplication algorithms can be benchmarked and picked separately.
+ */
+public interface Multiplier {
+
+    /**
+     * Multiplies two magnitudes. Both operands and the result are stored as
+     * little-endian base 10^9 limbs with no leading zero limbs, and the
+     * operands must not be modified.
+     *
+     * @param  a limbs of the first magnitude
+     * @param  b limbs of the second magnitude
+     * @return limbs of a * b
+     */
+    int[] multiply(int[] a, int[] b);
+}
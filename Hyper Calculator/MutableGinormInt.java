@@ -0,0 +1,275 @@
+import java.util.Arrays;
+
+/**
+ * Filename: MutableGinormInt.java
+ * Description: Growable accumulator for GinormInt arithmetic. It keeps one limb
+ *              buffer that is updated in place and only grows when a result
+ *              outgrows it, so long running sums don't allocate a new GinormInt
+ *              per step. Call toGinormInt() once at the end for an immutable copy.
+ *              Not thread-safe.
+ */
+public class MutableGinormInt {
+
+    private static final int BASE = GinormInt.BASE;
+    // little-endian base 10^9 limbs; only the first length are in use and the top one isn't zero
+    private int[] limbs;
+    private int length;
+    private boolean isNegative;
+    // scratch limbs for addInPlace(long) and subtractInPlace(long)
+    private final int[] longLimbs = new int[3];
+
+    /**
+     * Creates an accumulator holding zero.
+     */
+    public MutableGinormInt() {
+        limbs = new int[4];
+    }
+
+    /**
+     * Creates an accumulator holding the given value.
+     *
+     * @param  initial starting value
+     */
+    public MutableGinormInt(GinormInt initial) {
+        limbs = Arrays.copyOf(initial.limbs, Math.max(4, initial.limbs.length + 1));
+        length = initial.limbs.length;
+        isNegative = initial.isNegative;
+    }
+
+    /**
+     * Adds a GinormInt to this accumulator.
+     *
+     * @param  value GinormInt to add
+     * @return this accumulator
+     */
+    public MutableGinormInt addInPlace(GinormInt value) {
+        addSigned(value.limbs, value.limbs.length, value.isNegative);
+        return this;
+    }
+
+    /**
+     * Subtracts a GinormInt from this accumulator.
+     *
+     * @param  value GinormInt to subtract
+     * @return this accumulator
+     */
+    public MutableGinormInt subtractInPlace(GinormInt value) {
+        addSigned(value.limbs, value.limbs.length, !value.isNegative);
+        return this;
+    }
+
+    /**
+     * Adds a long to this accumulator without creating a GinormInt for it.
+     *
+     * @param  value long to add
+     * @return this accumulator
+     */
+    public MutableGinormInt addInPlace(long value) {
+        addSigned(longLimbs, splitLong(value), value < 0);
+        return this;
+    }
+
+    /**
+     * Subtracts a long from this accumulator without creating a GinormInt for it.
+     *
+     * @param  value long to subtract
+     * @return this accumulator
+     */
+    public MutableGinormInt subtractInPlace(long value) {
+        addSigned(longLimbs, splitLong(value), value > 0);
+        return this;
+    }
+
+    /**
+     * Multiplies this accumulator by an int, in place.
+     *
+     * @param  factor int to multiply by
+     * @return this accumulator
+     */
+    public MutableGinormInt multiplyBySmallInPlace(int factor) {
+        if (factor == 0 || length == 0) {
+            return clear();
+        }
+        long magnitude = Math.abs((long) factor);
+        ensureCapacity(length + 2);
+        long carry = 0;
+        for (int i = 0; i < length; i++) {
+            long product = limbs[i] * magnitude + carry;
+            carry = product / BASE;
+            limbs[i] = (int) (product - carry * BASE);
+        }
+        while (carry != 0) {
+            limbs[length] = (int) (carry % BASE);
+            carry /= BASE;
+            length++;
+        }
+        isNegative ^= factor < 0;
+        return this;
+    }
+
+    /**
+     * Resets this accumulator to zero, keeping its buffer for reuse.
+     *
+     * @return this accumulator
+     */
+    public MutableGinormInt clear() {
+        Arrays.fill(limbs, 0, length, 0);
+        length = 0;
+        isNegative = false;
+        return this;
+    }
+
+    /**
+     * Returns an immutable copy of the current value.
+     *
+     * @return GinormInt equal to this accumulator
+     */
+    public GinormInt toGinormInt() {
+        return new GinormInt(Arrays.copyOf(limbs, length), isNegative);
+    }
+
+    /**
+     * Returns the string representation of the current value.
+     *
+     * @return String representation
+     */
+    @Override
+    public String toString() {
+        return toGinormInt().toString();
+    }
+
+    /**
+     * Adds a signed magnitude into the buffer. When the signs differ, the
+     * smaller magnitude is taken from the larger and the larger one's sign wins.
+     *
+     * @param  other       limbs of the magnitude to add
+     * @param  otherLength number of limbs of other in use
+     * @param  otherNegative sign of the value being added
+     */
+    private void addSigned(int[] other, int otherLength, boolean otherNegative) {
+        if (otherLength == 0) {
+            return;
+        }
+        if (length == 0 || isNegative == otherNegative) {
+            addMagnitude(other, otherLength);
+            isNegative = otherNegative;
+        } else if (compareMagnitude(other, otherLength) >= 0) {
+            subtractMagnitude(other, otherLength);
+        } else {
+            subtractFromMagnitude(other, otherLength);
+            isNegative = otherNegative;
+        }
+        if (length == 0) {
+            isNegative = false;
+        }
+    }
+
+    /**
+     * Adds a magnitude to the buffer's magnitude.
+     */
+    private void addMagnitude(int[] other, int otherLength) {
+        ensureCapacity(Math.max(length, otherLength) + 1);
+        int carry = 0;
+        int i = 0;
+        for (; i < otherLength; i++) {
+            int sum = limbs[i] + other[i] + carry;
+            carry = sum >= BASE ? 1 : 0;
+            limbs[i] = sum - carry * BASE;
+        }
+        for (; carry != 0 && i < length; i++) {
+            int sum = limbs[i] + carry;
+            carry = sum >= BASE ? 1 : 0;
+            limbs[i] = sum - carry * BASE;
+        }
+        if (carry != 0) {
+            limbs[i++] = carry;
+        }
+        length = Math.max(length, i);
+    }
+
+    /**
+     * Subtracts a magnitude no larger than the buffer's from the buffer.
+     */
+    private void subtractMagnitude(int[] other, int otherLength) {
+        int borrow = 0;
+        int i = 0;
+        for (; i < otherLength; i++) {
+            int difference = limbs[i] - other[i] - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            limbs[i] = difference + borrow * BASE;
+        }
+        for (; borrow != 0; i++) {
+            int difference = limbs[i] - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            limbs[i] = difference + borrow * BASE;
+        }
+        trim();
+    }
+
+    /**
+     * Replaces the buffer's magnitude with other minus it, where other is larger.
+     */
+    private void subtractFromMagnitude(int[] other, int otherLength) {
+        ensureCapacity(otherLength);
+        int borrow = 0;
+        for (int i = 0; i < otherLength; i++) {
+            int difference = other[i] - (i < length ? limbs[i] : 0) - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            limbs[i] = difference + borrow * BASE;
+        }
+        length = otherLength;
+        trim();
+    }
+
+    /**
+     * Compares the buffer's magnitude with another magnitude.
+     *
+     * @return 1 if the buffer is larger, 0 if equal, -1 if it's smaller
+     */
+    private int compareMagnitude(int[] other, int otherLength) {
+        if (length != otherLength) {
+            return length > otherLength ? 1 : -1;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            if (limbs[i] != other[i]) {
+                return limbs[i] > other[i] ? 1 : -1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Splits |value| into the scratch limbs, treating it as unsigned so that
+     * Long.MIN_VALUE works too.
+     *
+     * @return number of limbs in use
+     */
+    private int splitLong(long value) {
+        long magnitude = value < 0 ? -value : value;
+        int count = 0;
+        while (magnitude != 0) {
+            longLimbs[count++] = (int) Long.remainderUnsigned(magnitude, BASE);
+            magnitude = Long.divideUnsigned(magnitude, BASE);
+        }
+        return count;
+    }
+
+    /**
+     * Grows the buffer, at least doubling it, so it holds the given limb count.
+     * Limbs past length are always zero.
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > limbs.length) {
+            limbs = Arrays.copyOf(limbs, Math.max(capacity, 2 * limbs.length));
+        }
+    }
+
+    /**
+     * Drops leading zero limbs from the in-use length.
+     */
+    private void trim() {
+        while (length > 0 && limbs[length - 1] == 0) {
+            length--;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import java.util.Arrays;
+
+/**
+ * Filename: NttMultiplier.java
+ * Description: Multiplies GinormInt magnitudes with number-theoretic transforms
+ *              modulo three NTT-friendly primes, then rebuilds each exact
+ *              coefficient with the Chinese remainder theorem (Garner's method).
+ *              This is O(n log n), so it overtakes Toom-3 once both operands
+ *              reach about 12,000 limbs (roughly 108,000 digits), which is
+ *              GinormInt's default NTT threshold.
+ */
+public class NttMultiplier implements Multiplier {
+
+    // all three primes have 3 as a primitive root and support transforms of length 2^23
+    private static final long PRIME_1 = 998_244_353L;
+    private static final long PRIME_2 = 167_772_161L;
+    private static final long PRIME_3 = 469_762_049L;
+    private static final long ROOT = 3;
+    private static final long PRIME_1_INVERSE_MOD_2 = power(PRIME_1 % PRIME_2, PRIME_2 - 2, PRIME_2);
+    private static final long PRIME_12_INVERSE_MOD_3 = power(PRIME_1 * PRIME_2 % PRIME_3, PRIME_3 - 2, PRIME_3);
+    private static final long PRIME_12_HIGH = PRIME_1 * PRIME_2 / GinormInt.BASE;
+    private static final long PRIME_12_LOW = PRIME_1 * PRIME_2 % GinormInt.BASE;
+
+    /**
+     * Largest product, in limbs, that fits in one transform. Every coefficient of
+     * a product this size stays below PRIME_1 * PRIME_2 * PRIME_3, so the CRT
+     * reconstruction is exact.
+     */
+    public static final int MAX_LENGTH = 1 << 23;
+
+    /**
+     * Multiplies two magnitudes through three modular convolutions.
+     *
+     * @param  a limbs of the first magnitude
+     * @param  b limbs of the second magnitude
+     * @return limbs of a * b
+     */
+    @Override
+    public int[] multiply(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return new int[0];
+        }
+        int length = a.length + b.length;
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Sorry, the product is too long for a single transform.");
+        }
+        int size = Integer.highestOneBit(length - 1) << 1;
+        long[] residues1 = convolve(a, b, size, PRIME_1);
+        long[] residues2 = convolve(a, b, size, PRIME_2);
+        long[] residues3 = convolve(a, b, size, PRIME_3);
+
+        int[] result = new int[length];
+        long carry = 0;
+        for (int i = 0; i < length; i++) {
+            long r1 = residues1[i];
+            long k2 = (residues2[i] - r1 % PRIME_2 + PRIME_2) % PRIME_2 * PRIME_1_INVERSE_MOD_2 % PRIME_2;
+            long low = r1 + PRIME_1 * k2;
+            long k3 = (residues3[i] - low % PRIME_3 + PRIME_3) % PRIME_3 * PRIME_12_INVERSE_MOD_3 % PRIME_3;
+            // coefficient = low + k3 * PRIME_1 * PRIME_2, added in two pieces to stay inside a long
+            long sum = low + k3 * PRIME_12_LOW + carry;
+            result[i] = (int) (sum % GinormInt.BASE);
+            carry = sum / GinormInt.BASE + k3 * PRIME_12_HIGH;
+        }
+        while (length > 0 && result[length - 1] == 0) {
+            length--;
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Computes the cyclic convolution of a and b modulo a prime.
+     *
+     * @param  a     limbs of the first magnitude
+     * @param  b     limbs of the second magnitude
+     * @param  size  power-of-two transform length, at least a.length + b.length
+     * @param  prime NTT-friendly prime modulus
+     * @return convolution coefficients modulo prime
+     */
+    private static long[] convolve(int[] a, int[] b, int size, long prime) {
+        long[] fa = new long[size];
+        for (int i = 0; i < a.length; i++) {
+            fa[i] = a[i] % prime;
+        }
+        transform(fa, prime, false);
+        long[] fb = fa;
+        if (b != a) {
+            fb = new long[size];
+            for (int i = 0; i < b.length; i++) {
+                fb[i] = b[i] % prime;
+            }
+            transform(fb, prime, false);
+        }
+        for (int i = 0; i < size; i++) {
+            fa[i] = fa[i] * fb[i] % prime;
+        }
+        transform(fa, prime, true);
+        return fa;
+    }
+
+    /**
+     * In-place iterative Cooley-Tukey transform over the integers modulo prime.
+     *
+     * @param  values  coefficients, replaced by their transform
+     * @param  prime   NTT-friendly prime modulus
+     * @param  inverse true for the inverse transform (including the 1/n scaling)
+     */
+    private static void transform(long[] values, long prime, boolean inverse) {
+        int n = values.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                long swap = values[i];
+                values[i] = values[j];
+                values[j] = swap;
+            }
+        }
+        long root = power(ROOT, (prime - 1) / n, prime);
+        if (inverse) {
+            root = power(root, prime - 2, prime);
+        }
+        long[] roots = new long[Math.max(1, n / 2)];
+        roots[0] = 1;
+        for (int i = 1; i < roots.length; i++) {
+            roots[i] = roots[i - 1] * root % prime;
+        }
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length / 2;
+            int step = n / length;
+            for (int start = 0; start < n; start += length) {
+                for (int j = 0; j < half; j++) {
+                    long u = values[start + j];
+                    long v = values[start + j + half] * roots[j * step] % prime;
+                    long sum = u + v;
+                    long difference = u - v;
+                    values[start + j] = sum >= prime ? sum - prime : sum;
+                    values[start + j + half] = difference < 0 ? difference + prime : difference;
+                }
+            }
+        }
+        if (inverse) {
+            long scale = power(n, prime - 2, prime);
+            for (int i = 0; i < n; i++) {
+                values[i] = values[i] * scale % prime;
+            }
+        }
+    }
+
+    /**
+     * Modular exponentiation for the small constants the transforms need.
+     *
+     * @param  base     value to raise, already reduced
+     * @param  exponent non-negative exponent
+     * @param  modulus  prime modulus below 2^31
+     * @return base^exponent mod modulus
+     */
+    private static long power(long base, long exponent, long modulus) {
+        long result = 1;
+        for (; exponent > 0; exponent >>= 1) {
+            if ((exponent & 1) == 1) {
+                result = result * base % modulus;
+            }
+            base = base * base % modulus;
+        }
+        return result;
+    }
+}
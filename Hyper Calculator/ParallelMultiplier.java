@@ -0,0 +1,187 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Filename: ParallelMultiplier.java
+ * Description: Opt-in parallel multiplication for very large GinormInts. Above
+ *              the parallelism threshold each product is split Karatsuba-style
+ *              and the three half-size products run as fork-join tasks; below
+ *              it the work goes to GinormInt's sequential multiplier. Splitting
+ *              stops once there are about as many tasks as pool threads, since
+ *              each split makes NTT-sized products do more total work. The same
+ *              pool also runs the levels of product trees and factorials.
+ */
+public class ParallelMultiplier implements Multiplier {
+
+    private static final int DEFAULT_THRESHOLD = 1_000;
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int maxDepth;
+
+    /**
+     * Creates a parallel multiplier on the common fork-join pool.
+     */
+    public ParallelMultiplier() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a parallel multiplier.
+     *
+     * @param  pool      pool that runs the sub-products
+     * @param  threshold smallest operand size, in limbs of the shorter operand,
+     *                   that is split into parallel sub-products
+     */
+    public ParallelMultiplier(ForkJoinPool pool, int threshold) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2 limbs");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+        int depth = 0;
+        for (long tasks = 1; tasks < pool.getParallelism(); tasks *= 3) {
+            depth++;
+        }
+        this.maxDepth = depth;
+    }
+
+    /**
+     * Multiplies two magnitudes, splitting them across the pool.
+     *
+     * @param  a limbs of the first magnitude
+     * @param  b limbs of the second magnitude
+     * @return limbs of a * b
+     */
+    @Override
+    public int[] multiply(int[] a, int[] b) {
+        if (Math.min(a.length, b.length) < threshold) {
+            return GinormInt.TIERED_MULTIPLIER.multiply(a, b);
+        }
+        return pool.invoke(new MultiplyTask(a, b, maxDepth));
+    }
+
+    /**
+     * Multiplies a list of GinormInts together, running both halves of each
+     * level of the product tree in parallel.
+     *
+     * @param  values GinormInts to multiply
+     * @return GinormInt that's the product of all of them (ONE for an empty list)
+     */
+    public GinormInt product(List<GinormInt> values) {
+        return pool.invoke(new ProductTask(values, 0, values.size()));
+    }
+
+    /**
+     * Computes n! with a parallel product tree over the range 2..n.
+     *
+     * @param  n non-negative integer
+     * @return GinormInt that's n factorial
+     */
+    public GinormInt factorial(int n) {
+        if (n < 0) {
+            throw new ArithmeticException("Sorry, factorial needs a non-negative argument.");
+        }
+        return pool.invoke(new RangeProductTask(2, n));
+    }
+
+    /**
+     * One Karatsuba step: the low, high and middle products are computed as
+     * separate tasks and then recombined.
+     */
+    private class MultiplyTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] b;
+        private final int depth;
+
+        MultiplyTask(int[] a, int[] b, int depth) {
+            this.a = a;
+            this.b = b;
+            this.depth = depth;
+        }
+
+        @Override
+        protected int[] compute() {
+            int shorter = Math.min(a.length, b.length);
+            if (depth == 0 || shorter < threshold || Math.max(a.length, b.length) >= 2 * shorter) {
+                return GinormInt.TIERED_MULTIPLIER.multiply(a, b);
+            }
+            int half = (Math.max(a.length, b.length) + 1) / 2;
+            int[] a0 = GinormInt.slice(a, 0, half);
+            int[] a1 = GinormInt.slice(a, half, a.length);
+            int[] b0 = GinormInt.slice(b, 0, half);
+            int[] b1 = GinormInt.slice(b, half, b.length);
+            MultiplyTask low = new MultiplyTask(a0, b0, depth - 1);
+            MultiplyTask high = new MultiplyTask(a1, b1, depth - 1);
+            low.fork();
+            high.fork();
+            int[] z1 = new MultiplyTask(GinormInt.addMagnitudes(a0, a1), GinormInt.addMagnitudes(b0, b1), depth - 1).compute();
+            int[] z2 = high.join();
+            int[] z0 = low.join();
+            z1 = GinormInt.subtractMagnitudes(GinormInt.subtractMagnitudes(z1, z0), z2);
+            int[] result = new int[a.length + b.length + 1];
+            GinormInt.addShifted(result, z0, 0);
+            GinormInt.addShifted(result, z1, half);
+            GinormInt.addShifted(result, z2, 2 * half);
+            return GinormInt.trim(result);
+        }
+    }
+
+    /**
+     * Multiplies values[from, to) by forking the two halves of the range.
+     */
+    private class ProductTask extends RecursiveTask<GinormInt> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<GinormInt> values;
+        private final int from;
+        private final int to;
+
+        ProductTask(List<GinormInt> values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GinormInt compute() {
+            if (to - from <= 2) {
+                return GinormInt.product(values, from, to, ParallelMultiplier.this);
+            }
+            int middle = (from + to) >>> 1;
+            ProductTask left = new ProductTask(values, from, middle);
+            left.fork();
+            GinormInt right = new ProductTask(values, middle, to).compute();
+            return left.join().times(right, ParallelMultiplier.this);
+        }
+    }
+
+    /**
+     * Multiplies the integers from..to by forking the two halves of the range.
+     */
+    private class RangeProductTask extends RecursiveTask<GinormInt> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        RangeProductTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GinormInt compute() {
+            if (to - from < GinormInt.PRODUCT_LEAF_SIZE * 4) {
+                return GinormInt.productOfRange(from, to, ParallelMultiplier.this);
+            }
+            long middle = (from + to) >>> 1;
+            RangeProductTask left = new RangeProductTask(from, middle);
+            left.fork();
+            GinormInt right = new RangeProductTask(middle + 1, to).compute();
+            return left.join().times(right, ParallelMultiplier.this);
+        }
+    }
+}
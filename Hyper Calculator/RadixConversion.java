@@ -0,0 +1,280 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filename: RadixConversion.java
+ * Description: Converts GinormInt magnitudes to and from binary words and text
+ *              in any radix from 2 to 36. Large values are split in half by a
+ *              cached power of the target radix (2^(32 * 2^j) for binary words,
+ *              radix^(2^j) for text), and each half is converted recursively.
+ *              The splits use GinormInt's fast divMod and times, so conversion
+ *              stays subquadratic. Only small pieces use plain digit-by-digit
+ *              loops.
+ */
+final class RadixConversion {
+
+    private static final int BASE = GinormInt.BASE;
+    // pieces at most this many limbs (or words) are converted digit by digit
+    private static final int SCHOOLBOOK_LIMBS = 40;
+    private static final int SCHOOLBOOK_WORDS = 40;
+    // log2(10^9) / 32: how many 32-bit words one base-10^9 limb is worth
+    private static final double WORDS_PER_LIMB = 9 * Math.log(10) / Math.log(2) / 32;
+    private static final List<GinormInt> WORD_POWERS = new ArrayList<>();
+    private static final Map<Integer, List<GinormInt>> RADIX_POWERS = new HashMap<>();
+
+    private RadixConversion() {
+    }
+
+    /**
+     * Converts a non-negative GinormInt into 32-bit words.
+     *
+     * @param  value non-negative GinormInt
+     * @return little-endian unsigned 32-bit words with no leading zero words
+     */
+    static int[] toWords(GinormInt value) {
+        int[] words = new int[(int) (value.limbs.length * WORDS_PER_LIMB) + 2];
+        writeWords(value, words, 0);
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(words, length);
+    }
+
+    /**
+     * Converts 32-bit words into a non-negative GinormInt.
+     *
+     * @param  words little-endian unsigned 32-bit words
+     * @param  from  index of the lowest word to use
+     * @param  to    index past the highest word to use
+     * @return GinormInt with that magnitude
+     */
+    static GinormInt fromWords(int[] words, int from, int to) {
+        while (to > from && words[to - 1] == 0) {
+            to--;
+        }
+        if (to - from <= SCHOOLBOOK_WORDS) {
+            int[] limbs = new int[(int) ((to - from) / WORDS_PER_LIMB) + 2];
+            int length = 0;
+            for (int i = to - 1; i >= from; i--) {
+                long carry = words[i] & 0xFFFFFFFFL;
+                for (int j = 0; j < length; j++) {
+                    long shifted = ((long) limbs[j] << 32) + carry;
+                    carry = shifted / BASE;
+                    limbs[j] = (int) (shifted - carry * BASE);
+                }
+                while (carry != 0) {
+                    limbs[length++] = (int) (carry % BASE);
+                    carry /= BASE;
+                }
+            }
+            return new GinormInt(Arrays.copyOf(limbs, length), false);
+        }
+        int level = 31 - Integer.numberOfLeadingZeros(to - from - 1);
+        int middle = from + (1 << level);
+        return fromWords(words, middle, to).times(wordPower(level)).plus(fromWords(words, from, middle));
+    }
+
+    /**
+     * Writes the digits of a GinormInt in the given radix.
+     *
+     * @param  value GinormInt to write
+     * @param  radix radix between 2 and 36
+     * @return digits, with a leading '-' for negative values
+     */
+    static String toString(GinormInt value, int radix) {
+        checkRadix(radix);
+        if (radix == 10) {
+            return value.toString();
+        }
+        StringBuilder out = new StringBuilder();
+        if (value.isNegative) {
+            out.append('-');
+        }
+        GinormInt magnitude = new GinormInt(value.limbs, false);
+        if (Integer.bitCount(radix) == 1) {
+            writePowerOfTwoDigits(toWords(magnitude), Integer.numberOfTrailingZeros(radix), out);
+        } else {
+            writeDigits(magnitude, radix, out, 0);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Parses digits in the given radix, with an optional leading '-'.
+     *
+     * @param  text  characters to parse
+     * @param  radix radix between 2 and 36
+     * @return GinormInt with that value
+     */
+    static GinormInt parse(CharSequence text, int radix) {
+        checkRadix(radix);
+        if (radix == 10) {
+            return new GinormInt(text);
+        }
+        boolean negative = text.length() > 0 && text.charAt(0) == '-';
+        int start = negative ? 1 : 0;
+        if (start == text.length()) {
+            throw new IllegalArgumentException("Sorry, there are no digits to parse.");
+        }
+        GinormInt magnitude;
+        if (Integer.bitCount(radix) == 1) {
+            magnitude = parsePowerOfTwoDigits(text, start, Integer.numberOfTrailingZeros(radix));
+        } else {
+            magnitude = parseDigits(text, start, text.length(), radix);
+        }
+        return negative ? GinormInt.ZERO.minus(magnitude) : magnitude;
+    }
+
+    /**
+     * Recursively writes a non-negative value's words into words[offset...].
+     */
+    private static void writeWords(GinormInt value, int[] words, int offset) {
+        int[] limbs = value.limbs;
+        if (limbs.length <= SCHOOLBOOK_LIMBS) {
+            int length = 0;
+            for (int i = limbs.length - 1; i >= 0; i--) {
+                long carry = limbs[i];
+                for (int j = 0; j < length; j++) {
+                    long product = (words[offset + j] & 0xFFFFFFFFL) * BASE + carry;
+                    words[offset + j] = (int) product;
+                    carry = product >>> 32;
+                }
+                if (carry != 0) {
+                    words[offset + length++] = (int) carry;
+                }
+            }
+            return;
+        }
+        // the value has at least this many words, so the split always leaves a nonzero quotient
+        int minimumWords = (int) ((limbs.length - 1) * WORDS_PER_LIMB);
+        int level = 31 - Integer.numberOfLeadingZeros(minimumWords);
+        GinormInt[] quotientAndRemainder = value.divMod(wordPower(level));
+        writeWords(quotientAndRemainder[1], words, offset);
+        writeWords(quotientAndRemainder[0], words, offset + (1 << level));
+    }
+
+    /**
+     * Recursively writes a non-negative value's digits in a radix that isn't
+     * a power of two, zero-padded on the left to at least the given width.
+     */
+    private static void writeDigits(GinormInt value, int radix, StringBuilder out, int width) {
+        if (value.limbs.length <= 2) {
+            long small = value.limbs.length == 0 ? 0
+                : value.limbs.length == 1 ? value.limbs[0] : (long) value.limbs[1] * BASE + value.limbs[0];
+            String digits = Long.toString(small, radix);
+            for (int i = digits.length(); i < width; i++) {
+                out.append('0');
+            }
+            out.append(digits);
+            return;
+        }
+        double estimatedDigits = value.limbs.length * 9 * Math.log(10) / Math.log(radix);
+        int level = Math.max(0, 31 - Integer.numberOfLeadingZeros((int) (estimatedDigits / 2)));
+        GinormInt[] quotientAndRemainder = value.divMod(radixPower(radix, level));
+        int lowDigits = 1 << level;
+        if (width == 0 && quotientAndRemainder[0].limbs.length == 0) {
+            writeDigits(quotientAndRemainder[1], radix, out, 0);
+            return;
+        }
+        writeDigits(quotientAndRemainder[0], radix, out, Math.max(0, width - lowDigits));
+        writeDigits(quotientAndRemainder[1], radix, out, lowDigits);
+    }
+
+    /**
+     * Recursively parses text[from, to) in a radix that isn't a power of two.
+     */
+    private static GinormInt parseDigits(CharSequence text, int from, int to, int radix) {
+        int longDigits = (int) (62 / (Math.log(radix) / Math.log(2)));
+        if (to - from <= longDigits) {
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                value = value * radix + digit(text.charAt(i), radix);
+            }
+            return GinormInt.valueOf(value);
+        }
+        int level = 31 - Integer.numberOfLeadingZeros(to - from - 1);
+        int middle = to - (1 << level);
+        return parseDigits(text, from, middle, radix).times(radixPower(radix, level))
+            .plus(parseDigits(text, middle, to, radix));
+    }
+
+    /**
+     * Writes words as digits of 2^bits each, most significant first.
+     */
+    private static void writePowerOfTwoDigits(int[] words, int bits, StringBuilder out) {
+        int totalBits = words.length == 0 ? 0 : (words.length - 1) * 32 + 32 - Integer.numberOfLeadingZeros(words[words.length - 1]);
+        int digits = Math.max(1, (totalBits + bits - 1) / bits);
+        for (int d = digits - 1; d >= 0; d--) {
+            int value = 0;
+            for (int b = bits - 1; b >= 0; b--) {
+                int bit = d * bits + b;
+                value = (value << 1) | (bit < words.length * 32 ? (words[bit >>> 5] >>> (bit & 31)) & 1 : 0);
+            }
+            out.append(Character.forDigit(value, 1 << bits));
+        }
+    }
+
+    /**
+     * Packs digits of 2^bits each straight into words.
+     */
+    private static GinormInt parsePowerOfTwoDigits(CharSequence text, int start, int bits) {
+        int digits = text.length() - start;
+        int[] words = new int[(int) (((long) digits * bits + 31) / 32)];
+        for (int d = 0; d < digits; d++) {
+            int value = digit(text.charAt(text.length() - 1 - d), 1 << bits);
+            for (int b = 0; b < bits; b++) {
+                int bit = d * bits + b;
+                words[bit >>> 5] |= ((value >>> b) & 1) << (bit & 31);
+            }
+        }
+        return fromWords(words, 0, words.length);
+    }
+
+    /**
+     * Returns 2^(32 * 2^level), computing and caching it by repeated squaring.
+     */
+    private static synchronized GinormInt wordPower(int level) {
+        if (WORD_POWERS.isEmpty()) {
+            WORD_POWERS.add(GinormInt.valueOf(1L << 32));
+        }
+        while (WORD_POWERS.size() <= level) {
+            GinormInt last = WORD_POWERS.get(WORD_POWERS.size() - 1);
+            WORD_POWERS.add(last.times(last));
+        }
+        return WORD_POWERS.get(level);
+    }
+
+    /**
+     * Returns radix^(2^level), computing and caching it by repeated squaring.
+     */
+    private static synchronized GinormInt radixPower(int radix, int level) {
+        List<GinormInt> powers = RADIX_POWERS.computeIfAbsent(radix, r -> new ArrayList<>());
+        if (powers.isEmpty()) {
+            powers.add(GinormInt.valueOf(radix));
+        }
+        while (powers.size() <= level) {
+            GinormInt last = powers.get(powers.size() - 1);
+            powers.add(last.times(last));
+        }
+        return powers.get(level);
+    }
+
+    private static int digit(char c, int radix) {
+        int value = Character.digit(c, radix);
+        if (value < 0) {
+            throw new IllegalArgumentException("Sorry, '" + c + "' isn't a digit in radix " + radix + ".");
+        }
+        return value;
+    }
+
+    private static void checkRadix(int radix) {
+        if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Radix must be between " + Character.MIN_RADIX + " and "
+                + Character.MAX_RADIX);
+        }
+    }
+}
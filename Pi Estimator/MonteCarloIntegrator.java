@@ -0,0 +1,375 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Filename: MonteCarloIntegrator.java
+ * Description: Monte Carlo integration of any function over a box in N dimensions,
+ *              the dart-throwing idea of PiEstimator made general. An indicator
+ *              function (1 inside a shape, 0 outside) gives the shape's volume;
+ *              any other integrand gives its integral, such as a SkateRamp curve
+ *              as point -> ramp.getY(point[0]) over [lo, hi].
+ *
+ *              Sampling runs on a pool of worker threads in chunks, and chunk i
+ *              always draws from the i-th split of one SplittableRandom, with the
+ *              chunk results combined in chunk order, so one seed gives the same
+ *              estimate on any number of threads. Two variance reductions can be
+ *              switched on, alone or together:
+ *                  stratified: the box is cut into k^N equal cells with the same
+ *                              number of samples in each
+ *                  antithetic: every sample u is paired with its mirror image
+ *                              lower + upper - u, and the pair's mean is one sample
+ *              The result carries a standard error computed for the chosen scheme.
+ */
+public final class MonteCarloIntegrator {
+
+    // samples (or antithetic pairs) per chunk handed to a worker
+    private static final long CHUNK_UNITS = 1 << 16;
+
+    private MonteCarloIntegrator() {
+    }
+
+    /**
+     * A function of a point in N dimensions. It is called from several threads
+     * at once, so it must not keep state between calls, and it must not keep or
+     * change the point array.
+     */
+    @FunctionalInterface
+    public interface Integrand {
+        double value(double[] point);
+    }
+
+    /**
+     * An integral estimate with its standard error and the number of function
+     * evaluations behind it.
+     */
+    public static final class Estimate {
+        private final double value;
+        private final double standardError;
+        private final long evaluations;
+
+        Estimate(double value, double standardError, long evaluations) {
+            this.value = value;
+            this.standardError = standardError;
+            this.evaluations = evaluations;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public double getStandardError() {
+            return standardError;
+        }
+
+        /**
+         * @return half the width of the 95% confidence interval around the value
+         */
+        public double getHalfWidth95() {
+            return PiEstimate.Z_95 * standardError;
+        }
+
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.10g +/- %.2e (95%%), %d evaluations", value, getHalfWidth95(), evaluations);
+        }
+    }
+
+    /**
+     * Estimates the volume of the unit ball in N dimensions from an indicator
+     * function, as a demonstration.
+     */
+    public static void main(String[] args) {
+        try {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("Usage: java MonteCarloIntegrator <dimensions> <samples> "
+                    + "[--stratified] [--antithetic] [--seed N]");
+            }
+            int dimensions = Integer.parseInt(args[0]);
+            long samples = Long.parseLong(args[1]);
+            boolean stratified = false;
+            boolean antithetic = false;
+            long seed = System.nanoTime();
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals("--stratified")) {
+                    stratified = true;
+                } else if (args[i].equals("--antithetic")) {
+                    antithetic = true;
+                } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                    seed = Long.parseLong(args[++i]);
+                } else {
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            double[] lower = new double[dimensions];
+            double[] upper = new double[dimensions];
+            Arrays.fill(lower, -1.0);
+            Arrays.fill(upper, 1.0);
+            Integrand insideBall = point -> {
+                double radiusSquared = 0;
+                for (double coordinate : point) {
+                    radiusSquared += coordinate * coordinate;
+                }
+                return radiusSquared <= 1 ? 1.0 : 0.0;
+            };
+            System.out.println(integrate(insideBall, lower, upper, samples, seed,
+                Runtime.getRuntime().availableProcessors(), stratified, antithetic));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Integrates a function over the box lower <= x <= upper.
+     *
+     * @param  integrand  stateless function to integrate
+     * @param  lower      lower corner of the box
+     * @param  upper      upper corner of the box
+     * @param  samples    about how many function evaluations to use; stratified
+     *                    sampling rounds down to a whole number per cell
+     * @param  seed       seed for the random streams
+     * @param  threads    number of worker threads
+     * @param  stratified whether to sample equal cells of the box equally
+     * @param  antithetic whether to pair each sample with its mirror image
+     * @return the integral, its standard error and the evaluations used
+     */
+    public static Estimate integrate(Integrand integrand, double[] lower, double[] upper, long samples, long seed,
+            int threads, boolean stratified, boolean antithetic) {
+        if (lower.length != upper.length || lower.length == 0) {
+            throw new IllegalArgumentException("Bounds must have the same, nonzero number of dimensions");
+        }
+        double volume = 1.0;
+        for (int j = 0; j < lower.length; j++) {
+            if (!(lower[j] < upper[j])) {
+                throw new IllegalArgumentException("Upper bound must be > lower bound");
+            }
+            volume *= upper[j] - lower[j];
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread required");
+        }
+        // a unit is one sample, or one mirrored pair of samples
+        long units = antithetic ? samples / 2 : samples;
+        int evaluationsPerUnit = antithetic ? 2 : 1;
+        if (units < 2) {
+            throw new IllegalArgumentException("Need enough samples for at least 2 units");
+        }
+        Sampler sampler = new Sampler(integrand, lower, upper, antithetic);
+        if (!stratified) {
+            long chunkCount = (units + CHUNK_UNITS - 1) / CHUNK_UNITS;
+            Partial total = new Partial();
+            for (Partial partial : runChunks(chunkCount, seed, threads,
+                    (chunk, random) -> sampler.sampleBox(random, Math.min(CHUNK_UNITS, units - chunk * CHUNK_UNITS)))) {
+                total.combine(partial);
+            }
+            double variance = total.squaredDeviations / (total.count - 1);
+            return new Estimate(volume * total.mean, volume * Math.sqrt(variance / total.count),
+                total.count * evaluationsPerUnit);
+        }
+        int cellsPerSide = cellsPerSide(units / 2, lower.length);
+        long cells = (long) Math.pow(cellsPerSide, lower.length);
+        long unitsPerCell = units / cells;
+        long cellsPerChunk = Math.max(1, CHUNK_UNITS / unitsPerCell);
+        long chunkCount = (cells + cellsPerChunk - 1) / cellsPerChunk;
+        double sumOfMeans = 0;
+        double sumOfVariances = 0;
+        for (Partial partial : runChunks(chunkCount, seed, threads, (chunk, random) -> sampler.sampleCells(random,
+                chunk * cellsPerChunk, Math.min(cells, (chunk + 1) * cellsPerChunk), cellsPerSide, unitsPerCell))) {
+            sumOfMeans += partial.mean;
+            sumOfVariances += partial.squaredDeviations;
+        }
+        // each cell is 1/cells of the box, so the integral is volume times the mean of the cell means
+        return new Estimate(volume * sumOfMeans / cells, volume * Math.sqrt(sumOfVariances) / cells,
+            cells * unitsPerCell * evaluationsPerUnit);
+    }
+
+    /**
+     * Finds the most cells per side k with k^dimensions <= maxCells (at least 1).
+     */
+    private static int cellsPerSide(long maxCells, int dimensions) {
+        int k = Math.max(1, (int) Math.floor(Math.pow(maxCells, 1.0 / dimensions)));
+        while (Math.pow(k + 1, dimensions) <= maxCells) {
+            k++;
+        }
+        while (k > 1 && Math.pow(k, dimensions) > maxCells) {
+            k--;
+        }
+        return k;
+    }
+
+    /**
+     * The work for one chunk, given its index and its own random stream.
+     */
+    @FunctionalInterface
+    private interface ChunkTask {
+        Partial run(long chunk, SplittableRandom random);
+    }
+
+    /**
+     * Runs every chunk on a pool of threads and returns their results in chunk
+     * order. Chunk i gets the i-th split of the seed's stream whichever thread
+     * picks it up.
+     */
+    private static Partial[] runChunks(long chunkCount, long seed, int threads, ChunkTask task) {
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many samples");
+        }
+        Partial[] partials = new Partial[(int) chunkCount];
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] nextChunk = {0};
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit((Callable<Void>) () -> {
+                    while (true) {
+                        long chunk;
+                        SplittableRandom random;
+                        synchronized (root) {
+                            if (nextChunk[0] == chunkCount) {
+                                return null;
+                            }
+                            chunk = nextChunk[0]++;
+                            random = root.split();
+                        }
+                        partials[(int) chunk] = task.run(chunk, random);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return partials;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sampling", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Running count, mean and sum of squared deviations (Welford's method),
+     * which can be merged with another one (Chan et al.). Stratified chunks
+     * reuse the fields as a sum of cell means and a sum of cell variances.
+     */
+    private static final class Partial {
+        long count;
+        double mean;
+        double squaredDeviations;
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            squaredDeviations += delta * (value - mean);
+        }
+
+        void combine(Partial other) {
+            if (other.count == 0) {
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+            count = total;
+        }
+    }
+
+    /**
+     * Draws the samples for chunks. One Sampler is shared by all workers, so
+     * each call makes its own scratch arrays.
+     */
+    private static final class Sampler {
+        private final Integrand integrand;
+        private final double[] lower;
+        private final double[] upper;
+        private final boolean antithetic;
+
+        Sampler(Integrand integrand, double[] lower, double[] upper, boolean antithetic) {
+            this.integrand = integrand;
+            this.lower = lower;
+            this.upper = upper;
+            this.antithetic = antithetic;
+        }
+
+        /**
+         * Samples units uniformly over the whole box.
+         */
+        Partial sampleBox(SplittableRandom random, long units) {
+            double[] point = new double[lower.length];
+            double[] mirror = new double[lower.length];
+            Partial partial = new Partial();
+            for (long i = 0; i < units; i++) {
+                partial.add(sampleUnit(random, lower, upper, point, mirror));
+            }
+            return partial;
+        }
+
+        /**
+         * Samples unitsPerCell units in each cell from first (inclusive) to last
+         * (exclusive), returning the sum of the cell means and the sum of the
+         * variances of those means.
+         */
+        Partial sampleCells(SplittableRandom random, long first, long last, int cellsPerSide, long unitsPerCell) {
+            int dimensions = lower.length;
+            double[] point = new double[dimensions];
+            double[] mirror = new double[dimensions];
+            double[] cellLower = new double[dimensions];
+            double[] cellUpper = new double[dimensions];
+            Partial sums = new Partial();
+            for (long cell = first; cell < last; cell++) {
+                long digits = cell;
+                for (int j = 0; j < dimensions; j++) {
+                    int position = (int) (digits % cellsPerSide);
+                    digits /= cellsPerSide;
+                    double width = (upper[j] - lower[j]) / cellsPerSide;
+                    cellLower[j] = lower[j] + position * width;
+                    cellUpper[j] = position == cellsPerSide - 1 ? upper[j] : cellLower[j] + width;
+                }
+                Partial inCell = new Partial();
+                for (long i = 0; i < unitsPerCell; i++) {
+                    inCell.add(sampleUnit(random, cellLower, cellUpper, point, mirror));
+                }
+                sums.mean += inCell.mean;
+                sums.squaredDeviations += inCell.squaredDeviations / (unitsPerCell - 1) / unitsPerCell;
+            }
+            return sums;
+        }
+
+        /**
+         * Evaluates one unit in the box [from, to]: a uniform sample, or the
+         * mean of a sample and its mirror image.
+         */
+        private double sampleUnit(SplittableRandom random, double[] from, double[] to, double[] point,
+                double[] mirror) {
+            for (int j = 0; j < point.length; j++) {
+                point[j] = from[j] + (to[j] - from[j]) * random.nextDouble();
+            }
+            double value = integrand.value(point);
+            if (!antithetic) {
+                return value;
+            }
+            for (int j = 0; j < point.length; j++) {
+                mirror[j] = from[j] + to[j] - point[j];
+            }
+            return (value + integrand.value(mirror)) / 2;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Filename: PiEstimate.java
+ * Description: A running or final pi estimate from dart throws: the counts it
+ *              came from, its standard error, and how fast the darts were thrown.
+ */
+public final class PiEstimate {
+
+    // z for a two-sided 95% confidence interval
+    public static final double Z_95 = 1.959963984540054;
+
+    private final long darts;
+    private final long hits;
+    private final long elapsedNanos;
+
+    /**
+     * PiEstimate constructor.
+     *
+     * @param darts        darts thrown so far
+     * @param hits         darts that landed inside the quarter circle
+     * @param elapsedNanos time spent throwing them
+     */
+    public PiEstimate(long darts, long hits, long elapsedNanos) {
+        this.darts = darts;
+        this.hits = hits;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getDarts() {
+        return darts;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return 4 times the fraction of darts that hit
+     */
+    public double getEstimate() {
+        return 4.0 * hits / darts;
+    }
+
+    /**
+     * Each dart hits with probability p = pi/4, so the estimate 4 * hits / darts
+     * has standard error 4 * sqrt(p * (1 - p) / darts), using the observed p.
+     *
+     * @return standard error of the estimate
+     */
+    public double getStandardError() {
+        double p = (double) hits / darts;
+        return 4.0 * Math.sqrt(p * (1 - p) / darts);
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval around the estimate
+     */
+    public double getHalfWidth95() {
+        return Z_95 * getStandardError();
+    }
+
+    /**
+     * @return darts thrown per second
+     */
+    public double getDartsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : darts * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d darts: %.10f +/- %.2e (95%%), %.1f M darts/s", darts, getEstimate(), getHalfWidth95(),
+            getDartsPerSecond() / 1e6);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Filename: SobolSequence.java
+ * Description: The two-dimensional Sobol low-discrepancy sequence, in 64-bit fixed
+ *              point. Points are generated in Gray-code order, which is the
+ *              Antonov-Saleev method: moving to the next point flips one
+ *              direction number into each coordinate, so stepping allocates
+ *              nothing and costs two XORs. Any point can be jumped to directly,
+ *              so disjoint index ranges can be handed to different threads and
+ *              together they give exactly the points one thread would. An
+ *              optional digital shift (an XOR with a random constant per
+ *              coordinate) scrambles the sequence but keeps it low-discrepancy.
+ */
+public final class SobolSequence {
+
+    // direction numbers as 64-bit binary fractions: x is the van der Corput sequence,
+    // and y uses the primitive polynomial x + 1, so each is the last one XOR itself shifted
+    private static final long[] X_DIRECTIONS = new long[63];
+    private static final long[] Y_DIRECTIONS = new long[63];
+
+    static {
+        for (int j = 0; j < X_DIRECTIONS.length; j++) {
+            X_DIRECTIONS[j] = 1L << (63 - j);
+            Y_DIRECTIONS[j] = j == 0 ? 1L << 63 : Y_DIRECTIONS[j - 1] ^ (Y_DIRECTIONS[j - 1] >>> 1);
+        }
+    }
+
+    private long index;
+    private long x;
+    private long y;
+
+    /**
+     * SobolSequence constructor: positions the sequence at a given point.
+     *
+     * @param start  index of the first point to produce (0 or more)
+     * @param shiftX digital shift XORed into every x (0 for the plain sequence)
+     * @param shiftY digital shift XORed into every y (0 for the plain sequence)
+     */
+    public SobolSequence(long start, long shiftX, long shiftY) {
+        if (start < 0) {
+            throw new IllegalArgumentException("Start index must not be negative");
+        }
+        index = start;
+        x = shiftX;
+        y = shiftY;
+        long gray = start ^ (start >>> 1);
+        for (int j = 0; gray != 0; j++, gray >>>= 1) {
+            if ((gray & 1) != 0) {
+                x ^= X_DIRECTIONS[j];
+                y ^= Y_DIRECTIONS[j];
+            }
+        }
+    }
+
+    /**
+     * @return x of the current point, as an unsigned fraction of 2^64
+     */
+    public long getX() {
+        return x;
+    }
+
+    /**
+     * @return y of the current point, as an unsigned fraction of 2^64
+     */
+    public long getY() {
+        return y;
+    }
+
+    /**
+     * Moves to the next point.
+     */
+    public void next() {
+        index++;
+        int j = Long.numberOfTrailingZeros(index);
+        x ^= X_DIRECTIONS[j];
+        y ^= Y_DIRECTIONS[j];
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.PriorityQueue;
+
+/**
+ * Filename: AdaptiveIntegrator.java
+ * Description: Adaptive Gauss-Kronrod (G7/K15) integration of a SkateRamp.Function.
+ *              Every interval is integrated with the 15-point Kronrod rule, and
+ *              the embedded 7-point Gauss rule reuses 7 of those points, so the
+ *              difference between the two rules costs nothing extra and serves
+ *              as the interval's error estimate. The interval with the largest
+ *              error is split in half until the total error is within
+ *              tolerance. Flat stretches of the curve keep one wide interval,
+ *              and the evaluations go where the curve is hard to integrate.
+ */
+public final class AdaptiveIntegrator {
+
+    // gives up splitting after this many intervals and reports the error it reached
+    private static final int MAX_INTERVALS = 2000;
+    private static final int POINTS_PER_INTERVAL = 15;
+
+    // Kronrod nodes on [-1, 1] (symmetric, so only x >= 0); the odd ones are also the Gauss nodes
+    private static final double[] KRONROD_NODES = {
+        0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+        0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+        0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+        0.207784955007898467600689403773245, 0.000000000000000000000000000000000
+    };
+    private static final double[] KRONROD_WEIGHTS = {
+        0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+        0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+        0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+        0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    // weights for the Gauss nodes KRONROD_NODES[1], [3], [5] and [7]
+    private static final double[] GAUSS_WEIGHTS = {
+        0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+        0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    private AdaptiveIntegrator() {
+    }
+
+    /**
+     * One integrated interval, ordered so the largest error comes first.
+     */
+    private static final class Interval implements Comparable<Interval> {
+        final double lower;
+        final double upper;
+        final double area;
+        final double error;
+
+        /**
+         * Integrates [lower, upper], passing all 15 points to the function in
+         * one batch call through the caller's scratch arrays.
+         */
+        Interval(SkateRamp.Function function, double lower, double upper, double[] xs, double[] ys) {
+            this.lower = lower;
+            this.upper = upper;
+            double center = (lower + upper) / 2;
+            double halfWidth = (upper - lower) / 2;
+            for (int i = 0; i < 7; i++) {
+                double offset = halfWidth * KRONROD_NODES[i];
+                xs[i] = center - offset;
+                xs[7 + i] = center + offset;
+            }
+            xs[14] = center;
+            function.getY(xs, ys, POINTS_PER_INTERVAL);
+            double kronrod = KRONROD_WEIGHTS[7] * ys[14];
+            double gauss = GAUSS_WEIGHTS[3] * ys[14];
+            for (int i = 0; i < 7; i++) {
+                double pair = ys[i] + ys[7 + i];
+                kronrod += KRONROD_WEIGHTS[i] * pair;
+                if (i % 2 == 1) {
+                    gauss += GAUSS_WEIGHTS[i / 2] * pair;
+                }
+            }
+            this.area = kronrod * halfWidth;
+            this.error = Math.abs((kronrod - gauss) * halfWidth);
+        }
+
+        @Override
+        public int compareTo(Interval other) {
+            return Double.compare(other.error, error);
+        }
+    }
+
+    /**
+     * Integrates a function, splitting intervals until the estimated error is
+     * at most the larger of the two tolerances, or the interval limit is hit.
+     *
+     * @param  function          curve to integrate
+     * @param  lowerBound        left end of the interval
+     * @param  upperBound        right end of the interval
+     * @param  absoluteTolerance acceptable absolute error
+     * @param  relativeTolerance acceptable error as a fraction of the area
+     * @return the area, the number of evaluations and the achieved error estimate
+     */
+    public static AreaEstimate integrate(SkateRamp.Function function, double lowerBound, double upperBound,
+            double absoluteTolerance, double relativeTolerance) {
+        if (absoluteTolerance < 0 || relativeTolerance < 0) {
+            throw new IllegalArgumentException("Tolerances can't be negative");
+        }
+        double[] xs = new double[POINTS_PER_INTERVAL];
+        double[] ys = new double[POINTS_PER_INTERVAL];
+        PriorityQueue<Interval> intervals = new PriorityQueue<>();
+        Interval whole = new Interval(function, lowerBound, upperBound, xs, ys);
+        intervals.add(whole);
+        double area = whole.area;
+        double error = whole.error;
+        while (error > Math.max(absoluteTolerance, relativeTolerance * Math.abs(area))
+                && intervals.size() < MAX_INTERVALS) {
+            Interval worst = intervals.poll();
+            double middle = (worst.lower + worst.upper) / 2;
+            if (middle <= worst.lower || middle >= worst.upper) {
+                // can't split any finer in double precision
+                intervals.add(worst);
+                break;
+            }
+            Interval left = new Interval(function, worst.lower, middle, xs, ys);
+            Interval right = new Interval(function, middle, worst.upper, xs, ys);
+            intervals.add(left);
+            intervals.add(right);
+            area += left.area + right.area - worst.area;
+            error += left.error + right.error - worst.error;
+        }
+        // add the pieces up afresh so the running updates leave no rounding behind
+        area = 0;
+        error = 0;
+        for (Interval interval : intervals) {
+            area += interval.area;
+            error += interval.error;
+        }
+        long evaluations = (long) POINTS_PER_INTERVAL * (2 * intervals.size() - 1);
+        return new AreaEstimate(area, evaluations, error);
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Filename: AreaEstimate.java
+ * Description: Result of a numeric integration: the area, how many times the
+ *              curve was evaluated to get it, and an estimate of its error.
+ */
+public final class AreaEstimate {
+
+    private final double area;
+    private final long evaluations;
+    private final double error;
+
+    /**
+     * AreaEstimate constructor.
+     *
+     * @param area        estimated area
+     * @param evaluations number of function evaluations used
+     * @param error       estimated absolute error of the area
+     */
+    public AreaEstimate(double area, long evaluations, double error) {
+        this.area = area;
+        this.evaluations = evaluations;
+        this.error = error;
+    }
+
+    /**
+     * @return the estimated area
+     */
+    public double getArea() {
+        return area;
+    }
+
+    /**
+     * @return the number of function evaluations used
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return the estimated absolute error of the area
+     */
+    public double getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return area + " (+/- " + error + ", " + evaluations + " evaluations)";
+    }
+}
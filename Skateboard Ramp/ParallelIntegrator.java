@@ -0,0 +1,108 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Filename: ParallelIntegrator.java
+ * Description: Integrates a SkateRamp.Function on several cores. The bounds are
+ *              cut into a fixed number of equal pieces, and each piece is
+ *              integrated on its own by AdaptiveIntegrator inside a ForkJoinPool.
+ *              The piece areas are then added in order with Neumaier
+ *              (compensated) summation. The number of pieces doesn't depend on
+ *              the pool, so the result is bit-for-bit the same on any number of
+ *              threads. The function is called from several threads at once, so
+ *              it must not keep state between calls.
+ */
+public final class ParallelIntegrator {
+
+    // enough pieces to keep a few dozen cores busy even when some finish early
+    public static final int DEFAULT_PIECES = 64;
+
+    private ParallelIntegrator() {
+    }
+
+    /**
+     * Integrates a function in DEFAULT_PIECES pieces on the common ForkJoinPool.
+     *
+     * @param  function          stateless curve to integrate
+     * @param  lowerBound        left end of the interval
+     * @param  upperBound        right end of the interval
+     * @param  absoluteTolerance acceptable absolute error over the whole interval
+     * @param  relativeTolerance acceptable error as a fraction of each piece's area
+     * @return the area, the total evaluations and the summed error estimate
+     */
+    public static AreaEstimate integrate(SkateRamp.Function function, double lowerBound, double upperBound,
+            double absoluteTolerance, double relativeTolerance) {
+        return integrate(function, lowerBound, upperBound, absoluteTolerance, relativeTolerance, DEFAULT_PIECES,
+            ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Integrates a function in the given number of pieces on the given pool.
+     *
+     * @param  function          stateless curve to integrate
+     * @param  lowerBound        left end of the interval
+     * @param  upperBound        right end of the interval
+     * @param  absoluteTolerance acceptable absolute error over the whole interval
+     * @param  relativeTolerance acceptable error as a fraction of each piece's area
+     * @param  pieces            number of equal pieces to integrate separately
+     * @param  pool              pool to run the pieces on
+     * @return the area, the total evaluations and the summed error estimate
+     */
+    public static AreaEstimate integrate(SkateRamp.Function function, double lowerBound, double upperBound,
+            double absoluteTolerance, double relativeTolerance, int pieces, ForkJoinPool pool) {
+        if (pieces < 1) {
+            throw new IllegalArgumentException("Need at least 1 piece");
+        }
+        double width = (upperBound - lowerBound) / pieces;
+        // toArray() keeps the pieces in order however the stream was split up
+        AreaEstimate[] estimates;
+        try {
+            estimates = pool.submit(() -> IntStream.range(0, pieces).parallel()
+                .mapToObj(i -> AdaptiveIntegrator.integrate(function,
+                    lowerBound + i * width,
+                    i == pieces - 1 ? upperBound : lowerBound + (i + 1) * width,
+                    absoluteTolerance / pieces, relativeTolerance))
+                .toArray(AreaEstimate[]::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while integrating", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        double[] areas = new double[pieces];
+        double[] errors = new double[pieces];
+        long evaluations = 0;
+        for (int i = 0; i < pieces; i++) {
+            areas[i] = estimates[i].getArea();
+            errors[i] = estimates[i].getError();
+            evaluations += estimates[i].getEvaluations();
+        }
+        return new AreaEstimate(compensatedSum(areas), evaluations, compensatedSum(errors));
+    }
+
+    /**
+     * Adds numbers in order with Neumaier's compensated summation, which keeps
+     * the rounding error from growing with the number of terms.
+     *
+     * @param  values numbers to add
+     * @return their sum
+     */
+    static double compensatedSum(double[] values) {
+        double sum = 0.0;
+        double compensation = 0.0;
+        for (double value : values) {
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+        return sum + compensation;
+    }
+}
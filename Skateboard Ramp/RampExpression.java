@@ -0,0 +1,333 @@
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Filename: RampExpression.java
+ * Description: A SkateRamp.Function given by a formula in x, such as
+ *              "3*sin(2x) + x^2". The formula is parsed once into a tree of small
+ *              lambdas, and each lambda is specialized for its operands: constant
+ *              subexpressions are folded, "c * f" and "f + c" skip the constant's
+ *              call, small integer powers become multiplications, and sin(x) and
+ *              friends call Math directly. Evaluating a point is then a few direct
+ *              calls the JIT can inline, with no parsing or tree walking per call.
+ *
+ *              Supported: numbers, x, pi, e, + - * / ^, unary minus, parentheses,
+ *              sin cos tan exp log sqrt abs, and implicit multiplication such as
+ *              2x, 3sin(x) or (x+1)(x-1). ^ binds tightest and groups right to left.
+ */
+public final class RampExpression implements SkateRamp.Function {
+
+    private static final DoubleUnaryOperator X = x -> x;
+    // integer powers up to this size are done by repeated squaring instead of Math.pow
+    private static final int MAX_MULTIPLIED_POWER = 64;
+
+    private final String source;
+    private final DoubleUnaryOperator compiled;
+
+    private RampExpression(String source, DoubleUnaryOperator compiled) {
+        this.source = source;
+        this.compiled = compiled;
+    }
+
+    /**
+     * Parses and compiles a formula in x.
+     *
+     * @param  source formula text
+     * @return compiled RampExpression
+     * @throws IllegalArgumentException if the text isn't a valid formula
+     */
+    public static RampExpression compile(String source) {
+        return new RampExpression(source, new Compiler(source).compile());
+    }
+
+    /**
+     * Calculates y, given x, from the compiled formula.
+     */
+    public double getY(double x) {
+        return compiled.applyAsDouble(x);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * A constant subexpression, kept recognizable so its parents can fold it.
+     */
+    private static final class Constant implements DoubleUnaryOperator {
+        final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        public double applyAsDouble(double x) {
+            return value;
+        }
+    }
+
+    /**
+     * Recursive-descent parser that builds the lambda tree as it goes:
+     *
+     *     sum     := product (('+' | '-') product)*
+     *     product := unary (('*' | '/') unary | implicit unary)*
+     *     unary   := ('-' | '+') unary | power
+     *     power   := primary ('^' unary)?
+     *     primary := number | name | name '(' sum ')' | '(' sum ')'
+     */
+    private static class Compiler {
+        private final String source;
+        private int position = 0;
+
+        Compiler(String source) {
+            this.source = source;
+        }
+
+        DoubleUnaryOperator compile() {
+            DoubleUnaryOperator result = parseSum();
+            skipWhitespace();
+            if (position < source.length()) {
+                throw error("Unexpected '" + source.charAt(position) + "'");
+            }
+            return result;
+        }
+
+        private DoubleUnaryOperator parseSum() {
+            DoubleUnaryOperator left = parseProduct();
+            while (true) {
+                if (accept('+')) {
+                    left = add(left, parseProduct());
+                } else if (accept('-')) {
+                    left = add(left, negate(parseProduct()));
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private DoubleUnaryOperator parseProduct() {
+            DoubleUnaryOperator left = parseUnary();
+            while (true) {
+                if (accept('*')) {
+                    left = multiply(left, parseUnary());
+                } else if (accept('/')) {
+                    left = divide(left, parseUnary());
+                } else if (position < source.length()
+                        && (source.charAt(position) == '(' || Character.isLetter(source.charAt(position)))) {
+                    left = multiply(left, parseUnary());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private DoubleUnaryOperator parseUnary() {
+            if (accept('-')) {
+                return negate(parseUnary());
+            } else if (accept('+')) {
+                return parseUnary();
+            }
+            return parsePower();
+        }
+
+        private DoubleUnaryOperator parsePower() {
+            DoubleUnaryOperator base = parsePrimary();
+            if (accept('^')) {
+                return power(base, parseUnary());
+            }
+            return base;
+        }
+
+        private DoubleUnaryOperator parsePrimary() {
+            skipWhitespace();
+            if (accept('(')) {
+                DoubleUnaryOperator inner = parseSum();
+                expect(')');
+                return inner;
+            }
+            int start = position;
+            if (position < source.length() && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                while (position < source.length()
+                        && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                    position++;
+                }
+                // an exponent needs a digit after the e and its optional sign; otherwise e is the constant
+                if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+                    int digits = position + 1;
+                    if (digits < source.length() && (source.charAt(digits) == '-' || source.charAt(digits) == '+')) {
+                        digits++;
+                    }
+                    if (digits < source.length() && Character.isDigit(source.charAt(digits))) {
+                        position = digits;
+                        while (position < source.length() && Character.isDigit(source.charAt(position))) {
+                            position++;
+                        }
+                    }
+                }
+                try {
+                    return new Constant(Double.parseDouble(source.substring(start, position)));
+                } catch (NumberFormatException e) {
+                    throw error("Bad number \"" + source.substring(start, position) + "\"");
+                }
+            }
+            while (position < source.length() && Character.isLetter(source.charAt(position))) {
+                position++;
+            }
+            String name = source.substring(start, position);
+            switch (name) {
+                case "x":
+                    return X;
+                case "pi":
+                    return new Constant(Math.PI);
+                case "e":
+                    return new Constant(Math.E);
+                case "":
+                    throw error(position < source.length() ? "Unexpected '" + source.charAt(position) + "'" : "Unexpected end");
+                default:
+                    expect('(');
+                    DoubleUnaryOperator argument = parseSum();
+                    expect(')');
+                    return call(name, argument);
+            }
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (position < source.length() && source.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!accept(expected)) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in \"" + source + "\"");
+        }
+
+        private DoubleUnaryOperator call(String name, DoubleUnaryOperator argument) {
+            DoubleUnaryOperator function;
+            switch (name) {
+                case "sin":
+                    function = argument == X ? Math::sin : x -> Math.sin(argument.applyAsDouble(x));
+                    break;
+                case "cos":
+                    function = argument == X ? Math::cos : x -> Math.cos(argument.applyAsDouble(x));
+                    break;
+                case "tan":
+                    function = argument == X ? Math::tan : x -> Math.tan(argument.applyAsDouble(x));
+                    break;
+                case "exp":
+                    function = argument == X ? Math::exp : x -> Math.exp(argument.applyAsDouble(x));
+                    break;
+                case "log":
+                    function = argument == X ? Math::log : x -> Math.log(argument.applyAsDouble(x));
+                    break;
+                case "sqrt":
+                    function = argument == X ? Math::sqrt : x -> Math.sqrt(argument.applyAsDouble(x));
+                    break;
+                case "abs":
+                    function = argument == X ? Math::abs : x -> Math.abs(argument.applyAsDouble(x));
+                    break;
+                default:
+                    throw error("Unknown function " + name);
+            }
+            return argument instanceof Constant ? new Constant(function.applyAsDouble(0)) : function;
+        }
+    }
+
+    private static DoubleUnaryOperator negate(DoubleUnaryOperator operand) {
+        if (operand instanceof Constant) {
+            return new Constant(-((Constant) operand).value);
+        }
+        return x -> -operand.applyAsDouble(x);
+    }
+
+    private static DoubleUnaryOperator add(DoubleUnaryOperator left, DoubleUnaryOperator right) {
+        if (left instanceof Constant && right instanceof Constant) {
+            return new Constant(((Constant) left).value + ((Constant) right).value);
+        } else if (left instanceof Constant) {
+            return add(right, left);
+        } else if (right instanceof Constant) {
+            double constant = ((Constant) right).value;
+            return left == X ? x -> x + constant : x -> left.applyAsDouble(x) + constant;
+        }
+        return x -> left.applyAsDouble(x) + right.applyAsDouble(x);
+    }
+
+    private static DoubleUnaryOperator multiply(DoubleUnaryOperator left, DoubleUnaryOperator right) {
+        if (left instanceof Constant && right instanceof Constant) {
+            return new Constant(((Constant) left).value * ((Constant) right).value);
+        } else if (right instanceof Constant) {
+            return multiply(right, left);
+        } else if (left instanceof Constant) {
+            double constant = ((Constant) left).value;
+            return right == X ? x -> constant * x : x -> constant * right.applyAsDouble(x);
+        } else if (left == X && right == X) {
+            return x -> x * x;
+        }
+        return x -> left.applyAsDouble(x) * right.applyAsDouble(x);
+    }
+
+    private static DoubleUnaryOperator divide(DoubleUnaryOperator left, DoubleUnaryOperator right) {
+        if (left instanceof Constant && right instanceof Constant) {
+            return new Constant(((Constant) left).value / ((Constant) right).value);
+        } else if (right instanceof Constant) {
+            return multiply(new Constant(1 / ((Constant) right).value), left);
+        }
+        return x -> left.applyAsDouble(x) / right.applyAsDouble(x);
+    }
+
+    private static DoubleUnaryOperator power(DoubleUnaryOperator base, DoubleUnaryOperator exponent) {
+        if (base instanceof Constant && exponent instanceof Constant) {
+            return new Constant(Math.pow(((Constant) base).value, ((Constant) exponent).value));
+        } else if (!(exponent instanceof Constant)) {
+            return x -> Math.pow(base.applyAsDouble(x), exponent.applyAsDouble(x));
+        }
+        double value = ((Constant) exponent).value;
+        if (value != Math.rint(value) || Math.abs(value) > MAX_MULTIPLIED_POWER) {
+            return x -> Math.pow(base.applyAsDouble(x), value);
+        }
+        int n = (int) Math.abs(value);
+        DoubleUnaryOperator positive;
+        if (n == 0) {
+            return new Constant(1.0);
+        } else if (n == 1) {
+            positive = base;
+        } else if (n == 2) {
+            positive = base == X ? x -> x * x : x -> {
+                double y = base.applyAsDouble(x);
+                return y * y;
+            };
+        } else if (n == 3) {
+            positive = x -> {
+                double y = base.applyAsDouble(x);
+                return y * y * y;
+            };
+        } else {
+            positive = x -> {
+                double square = base.applyAsDouble(x);
+                double result = 1.0;
+                for (int bits = n; bits > 0; bits >>= 1) {
+                    if ((bits & 1) != 0) {
+                        result *= square;
+                    }
+                    square *= square;
+                }
+                return result;
+            };
+        }
+        return value < 0 ? divide(new Constant(1.0), positive) : positive;
+    }
+}
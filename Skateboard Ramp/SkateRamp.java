@@ -1,4 +1,5 @@
 import java.nio.charset.UnmappableCharacterException;
+import java.util.Arrays;
 
 /**
  * Filename: SkateRamp.java
@@ -8,45 +9,133 @@ import java.nio.charset.UnmappableCharacterException;
  */
 public class SkateRamp {
 
+    // refinement always doubles at least this many times (32 panels), since
+    // coarse grids can agree with each other by accident on oscillating curves
+    private static final int MIN_REFINEMENTS = 5;
+    // and gives up after this many (2^25 panels)
+    private static final int MAX_REFINEMENTS = 25;
+    // the rectangle loop and Romberg refinement also stop once successive areas
+    // are this close, so an area of 0 (where no relative tolerance can be met) ends
+    private static final double ABSOLUTE_TOLERANCE = 1e-12;
+    // the rectangle loop gives up after this many rectangles (about 2 * 10^8 evaluations in all)
+    private static final int MAX_RECTANGLES = 20_000;
+    // sample points are handed to Function.getY() this many at a time
+    private static final int BATCH_SIZE = 1024;
+
     // TODO: define the instance variables
     private double percentage = 1.0;
     private double lowerBound;
     private double upperBound;
     private Function function;
     private double[] coefficients;
+    private boolean quiet = false;
 
     /**
      *  The interface Function will be implemented by Polynomial and Sine.
-     *  The concrete classes must implement the getY() method.
+     *  The concrete classes must implement the getY() method, and can override
+     *  the batch getY() when they have a faster way to do many points at once.
      */
     interface Function {
         double getY(double x);
+
+        /**
+         * Calculates y for every x in xs, storing them in out.
+         */
+        default void getY(double[] xs, double[] out) {
+            getY(xs, out, xs.length);
+        }
+
+        /**
+         * Calculates y for the first count entries of xs, storing them in out.
+         */
+        default void getY(double[] xs, double[] out, int count) {
+            for (int i = 0; i < count; i++) {
+                out[i] = getY(xs[i]);
+            }
+        }
     }
 
-    class Polynomial implements Function {
+    /**
+     *  A Function whose antiderivative is known in closed form, so the area
+     *  under it can be computed exactly instead of estimated.
+     */
+    interface Antidifferentiable extends Function {
+        /**
+         * Calculates an antiderivative F of the curve at x, so the area over
+         * [a, b] is F(b) - F(a).
+         */
+        double getAntiderivative(double x);
+    }
+
+    class Polynomial implements Antidifferentiable {
         /**
-         * Calculates y, given x, for a polynomial curve.
+         * Calculates y, given x, for a polynomial curve using Horner's rule.
          */
         public double getY(double x) {
             double value = 0.0;
-            for (int i = 0; i < coefficients.length; i++) {
-                value += coefficients[i] * Math.pow(x, i);
+            for (int i = coefficients.length - 1; i >= 0; i--) {
+                value = value * x + coefficients[i];
             }
             return value;
         }
+
+        /**
+         * Calculates y for many x at once. Horner's rule runs one coefficient at
+         * a time across all the points, so the inner loop is a plain
+         * multiply-add over arrays that the JIT turns into SIMD instructions.
+         */
+        @Override
+        public void getY(double[] xs, double[] out, int count) {
+            Arrays.fill(out, 0, count, 0.0);
+            for (int c = coefficients.length - 1; c >= 0; c--) {
+                double coefficient = coefficients[c];
+                for (int i = 0; i < count; i++) {
+                    out[i] = out[i] * xs[i] + coefficient;
+                }
+            }
+        }
+
+        /**
+         * Calculates the sum of c_i * x^(i + 1) / (i + 1), also by Horner's rule.
+         */
+        public double getAntiderivative(double x) {
+            double value = 0.0;
+            for (int i = coefficients.length - 1; i >= 0; i--) {
+                value = value * x + coefficients[i] / (i + 1);
+            }
+            return value * x;
+        }
     }
 
-    class Sine implements Function {
+    class Sine implements Antidifferentiable {
         /**
          * Calculates y, given x, for a sine curve.
          */
         public double getY(double x) {
             return Math.sin(x);
         }
+
+        /**
+         * Calculates y for many x at once.
+         */
+        @Override
+        public void getY(double[] xs, double[] out, int count) {
+            for (int i = 0; i < count; i++) {
+                out[i] = Math.sin(xs[i]);
+            }
+        }
+
+        /**
+         * Calculates -cos(x), the antiderivative of sin(x).
+         */
+        public double getAntiderivative(double x) {
+            return -Math.cos(x);
+        }
     }
 
     /**
      * SkateRamp constructor: validates and sets up instance variables from args.
+     * The curve is "poly c0 c1 ...", "sin", or "expr <formula in x>".
      */
     public SkateRamp(String... args) throws NumberFormatException, IllegalArgumentException {
         if (args.length < 3) {
@@ -58,6 +147,13 @@ public class SkateRamp {
             if (args.length < 2 + endingArgsLength) {
                 throw new IllegalArgumentException("Need at least 1 coeff for poly");
             }
+        } else if (args[0].equals("expr")) {
+            if (args.length < 2 + endingArgsLength) {
+                throw new IllegalArgumentException("Need a formula in x for expr");
+            }
+            // the formula may have been split into several args by spaces
+            function = RampExpression.compile(String.join(" ",
+                Arrays.copyOfRange(args, 1, args.length - endingArgsLength)));
         } else {
             function = new Sine();
         }
@@ -72,8 +168,8 @@ public class SkateRamp {
         if (percentage <= 0.0) {
             throw new IllegalArgumentException("% must be positive");
         }
-        coefficients = new double[args.length - endingArgsLength - 1];
-        for (int i = 0; i < args.length - endingArgsLength - 1; i++) {
+        coefficients = new double[function instanceof RampExpression ? 0 : args.length - endingArgsLength - 1];
+        for (int i = 0; i < coefficients.length; i++) {
             coefficients[i] = Double.parseDouble(args[i + 1]);
         }
     }
@@ -85,31 +181,207 @@ public class SkateRamp {
      * @return the estimated area
      */
     public double estimateAreaUnderRamp() {
+        return integrateByRectangles().getArea();
+    }
+
+    /**
+     * Runs the rectangle loop behind estimateAreaUnderRamp().
+     */
+    private AreaEstimate integrateByRectangles() {
         int rectangles = 1;
+        long evaluations = 0;
         double currentArea = 0;
         double previousArea = 0;
         double rectangleWidth;
-        while (Math.abs(currentArea - previousArea) >= previousArea * percentage * 0.01) {
+        double[] xs = new double[BATCH_SIZE];
+        double[] ys = new double[BATCH_SIZE];
+        do {
             rectangleWidth = (upperBound - lowerBound) / rectangles;
             previousArea = currentArea;
             currentArea = 0;
-            for (double i = rectangleWidth / 2 + lowerBound; i < upperBound; i += rectangleWidth) {
-                currentArea += rectangleWidth * function.getY(i);
+            double i = rectangleWidth / 2 + lowerBound;
+            while (i < upperBound) {
+                int count = 0;
+                for (; count < BATCH_SIZE && i < upperBound; i += rectangleWidth) {
+                    xs[count++] = i;
+                }
+                function.getY(xs, ys, count);
+                for (int j = 0; j < count; j++) {
+                    currentArea += rectangleWidth * ys[j];
+                }
+                evaluations += count;
             }
             rectangles++;
+            // the first pass has nothing real to compare against, so there are always at least 2
+        } while (rectangles <= MAX_RECTANGLES && (rectangles <= 2 || Math.abs(currentArea - previousArea)
+                >= Math.max(Math.abs(previousArea) * percentage * 0.01, ABSOLUTE_TOLERANCE)));
+        report("Iterations: " + (rectangles - 1));
+        return new AreaEstimate(currentArea, evaluations, Math.abs(currentArea - previousArea));
+    }
+
+    /**
+     * Estimates the area under the curve with the composite trapezoid rule,
+     * doubling the number of panels on each iteration. Every doubling keeps the
+     * previous sum and only evaluates the new midpoints, so reaching n panels
+     * costs n + 1 evaluations in total, and Romberg extrapolation of those sums
+     * converges much faster than the sums themselves on smooth curves. Stops
+     * when 2 extrapolated areas are within the percentage of each other.
+     *
+     * @return the estimated area
+     */
+    public double estimateAreaByRefinement() {
+        return integrateByRefinement().getArea();
+    }
+
+    /**
+     * Runs the Romberg refinement behind estimateAreaByRefinement().
+     */
+    private AreaEstimate integrateByRefinement() {
+        double width = upperBound - lowerBound;
+        // row j of the Romberg table for the current and previous level
+        double[] currentRow = new double[MAX_REFINEMENTS + 1];
+        double[] previousRow = new double[MAX_REFINEMENTS + 1];
+        double[] xs = new double[BATCH_SIZE];
+        double[] ys = new double[BATCH_SIZE];
+        currentRow[0] = width / 2 * (function.getY(lowerBound) + function.getY(upperBound));
+        int evaluations = 2;
+        int panels = 1;
+        int level = 0;
+        double difference;
+        do {
+            double[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+            double panelWidth = width / panels;
+            double midpointSum = 0;
+            for (int start = 0; start < panels; start += BATCH_SIZE) {
+                int count = Math.min(BATCH_SIZE, panels - start);
+                for (int i = 0; i < count; i++) {
+                    xs[i] = lowerBound + (start + i + 0.5) * panelWidth;
+                }
+                function.getY(xs, ys, count);
+                for (int i = 0; i < count; i++) {
+                    midpointSum += ys[i];
+                }
+            }
+            evaluations += panels;
+            panels *= 2;
+            level++;
+            currentRow[0] = previousRow[0] / 2 + panelWidth / 2 * midpointSum;
+            double factor = 1;
+            for (int j = 1; j <= level; j++) {
+                factor *= 4;
+                currentRow[j] = currentRow[j - 1] + (currentRow[j - 1] - previousRow[j - 1]) / (factor - 1);
+            }
+            difference = Math.abs(currentRow[level] - previousRow[level - 1]);
+        } while (level < MAX_REFINEMENTS
+                && (level < MIN_REFINEMENTS || difference
+                    >= Math.max(Math.abs(previousRow[level - 1]) * percentage * 0.01, ABSOLUTE_TOLERANCE)));
+        report("Iterations: " + level);
+        report("Evaluations: " + evaluations);
+        return new AreaEstimate(currentRow[level], evaluations, difference);
+    }
+
+    /**
+     * Estimates the area under the curve with adaptive Gauss-Kronrod
+     * quadrature, which only subdivides where the curve needs it, until the
+     * estimated error is within the percentage of the area.
+     *
+     * @return the estimated area, with its evaluation count and error estimate
+     */
+    public AreaEstimate estimateAreaAdaptively() {
+        AreaEstimate estimate = AdaptiveIntegrator.integrate(function, lowerBound, upperBound, 0.0, percentage * 0.01);
+        report("Evaluations: " + estimate.getEvaluations());
+        report("Error: " + estimate.getError());
+        return estimate;
+    }
+
+    /**
+     * Estimates the area under the curve by integrating equal pieces of it
+     * adaptively on all cores and adding them back up in a fixed order, so the
+     * result doesn't depend on how many cores there are.
+     *
+     * @return the estimated area, with its evaluation count and error estimate
+     */
+    public AreaEstimate estimateAreaInParallel() {
+        AreaEstimate estimate = ParallelIntegrator.integrate(function, lowerBound, upperBound, 0.0, percentage * 0.01);
+        report("Evaluations: " + estimate.getEvaluations());
+        report("Error: " + estimate.getError());
+        return estimate;
+    }
+
+    /**
+     * Calculates the area under the curve from its antiderivative when the
+     * curve has one in closed form, which takes O(degree) time for a polynomial
+     * and no iterations at all. Other curves fall back to estimateAreaAdaptively().
+     *
+     * @return the area, with 0 evaluations and 0 error when it was exact
+     */
+    public AreaEstimate estimateAreaExactly() {
+        if (!(function instanceof Antidifferentiable)) {
+            return estimateAreaAdaptively();
+        }
+        Antidifferentiable curve = (Antidifferentiable) function;
+        double area = curve.getAntiderivative(upperBound) - curve.getAntiderivative(lowerBound);
+        report("Evaluations: 0");
+        return new AreaEstimate(area, 0, 0.0);
+    }
+
+    /**
+     * Estimates the area with the method named by a mode flag:
+     *     ""         rectangles, as in estimateAreaUnderRamp()
+     *     --refine   doubling trapezoid panels with Romberg extrapolation
+     *     --adaptive adaptive Gauss-Kronrod quadrature
+     *     --parallel adaptive quadrature on pieces of the interval, on all cores
+     *     --exact    closed-form area from the antiderivative
+     *
+     * @param  mode mode flag
+     * @return the estimated area, with its evaluation count and error estimate
+     */
+    public AreaEstimate estimate(String mode) {
+        switch (mode) {
+            case "":
+                return integrateByRectangles();
+            case "--refine":
+                return integrateByRefinement();
+            case "--adaptive":
+                return estimateAreaAdaptively();
+            case "--parallel":
+                return estimateAreaInParallel();
+            case "--exact":
+                return estimateAreaExactly();
+            default:
+                throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    /**
+     * Turns the progress lines (iterations, evaluations, error) that the
+     * estimate methods print on standard output off or back on.
+     *
+     * @param quiet true to stop printing progress lines
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    private void report(String line) {
+        if (!quiet) {
+            System.out.println(line);
         }
-        System.out.println("Iterations: " + (rectangles - 1));
-        return currentArea;
     }
 
     /**
      * main() creates a new SkateRamp object and calls estimateAreaUnderRamp().
      * You should wrap your code inside a try/catch block.
+     *
+     * An optional first argument picks how the area is estimated; see estimate().
      */
     public static void main(String[] args) {
         try {
-            var ramp = new SkateRamp(args);
-            System.out.println(ramp.estimateAreaUnderRamp());
+            String mode = args.length > 0 && args[0].startsWith("--") ? args[0] : "";
+            var ramp = new SkateRamp(mode.isEmpty() ? args : Arrays.copyOfRange(args, 1, args.length));
+            System.out.println(ramp.estimate(mode).getArea());
         } catch (Exception e) {
             System.err.println(e.getMessage());
         }
@@ -0,0 +1,198 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Filename: SkateRampBatch.java
+ * Description: Integrates many ramps in one JVM. Each input line is one ramp,
+ *              written the same way as SkateRamp's command-line arguments, for
+ *              example "--adaptive poly 1 2 3 0 5 0.1%". The ramps are integrated
+ *              concurrently on a fixed pool of worker threads. Only a bounded
+ *              number of lines are in flight at once, so the input can be of any
+ *              size. Results are written as CSV (or JSON Lines) in input order.
+ */
+public class SkateRampBatch {
+
+    // how many lines per worker may be read ahead of the oldest unwritten result
+    private static final int PENDING_PER_THREAD = 4;
+    private static final String CSV_HEADER = "line,spec,area,evaluations,error,message\n";
+
+    /**
+     * Reads ramp specs from a file (or standard input) and writes one result
+     * per spec to standard output.
+     */
+    public static void main(String[] args) {
+        boolean json = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String inputFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--json")) {
+                    json = true;
+                } else if (args[i].equals("--threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (inputFile == null && !args[i].startsWith("--")) {
+                    inputFile = args[i];
+                } else {
+                    displayUsageMessage();
+                    return;
+                }
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("Need at least 1 thread");
+            }
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+            try (BufferedReader in = inputFile != null
+                    ? Files.newBufferedReader(Paths.get(inputFile), StandardCharsets.UTF_8)
+                    : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)) {
+                integrateLines(in, out, json, threads);
+            }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Sorry, couldn't read input: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Integrates the ramp on each input line and writes the results in input
+     * order. Blank lines and lines starting with '#' are skipped. A ramp that
+     * can't be set up or integrated gets a row with its message instead of an
+     * area, so one bad spec doesn't stop the sweep.
+     *
+     * @param  in      source of ramp specs
+     * @param  out     destination for results
+     * @param  json    true for JSON Lines, false for CSV with a header row
+     * @param  threads number of worker threads
+     * @throws IOException if reading or writing fails
+     */
+    public static void integrateLines(BufferedReader in, Writer out, boolean json, int threads) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        try {
+            if (!json) {
+                out.write(CSV_HEADER);
+            }
+            String line;
+            for (int lineNumber = 1; (line = in.readLine()) != null; lineNumber++) {
+                String spec = line.trim();
+                if (spec.isEmpty() || spec.charAt(0) == '#') {
+                    continue;
+                }
+                int number = lineNumber;
+                pending.add(pool.submit(() -> integrate(number, spec, json)));
+                if (pending.size() >= threads * PENDING_PER_THREAD) {
+                    out.write(await(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(await(pending.poll()));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Integrates one ramp and formats its result row.
+     */
+    private static String integrate(int lineNumber, String spec, boolean json) {
+        try {
+            String[] args = spec.split("\\s+");
+            String mode = args[0].startsWith("--") ? args[0] : "";
+            SkateRamp ramp = new SkateRamp(mode.isEmpty() ? args : Arrays.copyOfRange(args, 1, args.length));
+            ramp.setQuiet(true);
+            AreaEstimate estimate = ramp.estimate(mode);
+            return format(lineNumber, spec, estimate, null, json);
+        } catch (RuntimeException e) {
+            return format(lineNumber, spec, null, String.valueOf(e.getMessage()), json);
+        }
+    }
+
+    private static String format(int lineNumber, String spec, AreaEstimate estimate, String message, boolean json) {
+        if (json) {
+            StringBuilder row = new StringBuilder("{\"line\":").append(lineNumber)
+                .append(",\"spec\":").append(jsonString(spec));
+            if (estimate != null) {
+                row.append(",\"area\":").append(jsonNumber(estimate.getArea()))
+                    .append(",\"evaluations\":").append(estimate.getEvaluations())
+                    .append(",\"error\":").append(jsonNumber(estimate.getError()));
+            } else {
+                row.append(",\"message\":").append(jsonString(message));
+            }
+            return row.append("}\n").toString();
+        }
+        if (estimate != null) {
+            return lineNumber + "," + csv(spec) + "," + estimate.getArea() + "," + estimate.getEvaluations() + ","
+                + estimate.getError() + ",\n";
+        }
+        return lineNumber + "," + csv(spec) + ",,,," + csv(message) + "\n";
+    }
+
+    private static String await(Future<String> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while integrating");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String csv(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    // JSON has no NaN or Infinity
+    private static String jsonNumber(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    /**
+     * Displays a usage message.
+     */
+    private static void displayUsageMessage() {
+        System.out.println("Usage: java SkateRampBatch [--json] [--threads N] [inputFile]");
+        System.out.println();
+        System.out.println("Each input line is one ramp in SkateRamp's argument format, for example:");
+        System.out.println();
+        System.out.println("    --exact poly 1 2 3 0 5");
+        System.out.println("    --adaptive sin 0 100 0.01%");
+        System.out.println();
+        System.out.println("Input is read from standard input when no file is given.");
+    }
+}
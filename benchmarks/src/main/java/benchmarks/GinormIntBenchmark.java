@@ -0,0 +1,178 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Filename: GinormIntBenchmark.java
+ * Description: JMH benchmarks for the GinormInt constructor, plus, minus, times,
+ *              compareTo and toString on operands from 10 to 10^6 digits, each
+ *              next to the same operation on java.math.BigInteger.
+ *
+ *              10^7 digits is left out of the defaults because one operation
+ *              can take minutes there. The bench profile runs that size in a
+ *              separate single-shot pass (-p digits=10000000 -bm ss) and skips
+ *              bigIntegerConstructor there: new BigInteger(String) is quadratic
+ *              and would need about 40 minutes per call.
+ *
+ *              JMH can't generate code for classes in the default package, so
+ *              this class lives in its own package and calls GinormInt through
+ *              constant MethodHandles, which the JIT inlines like direct calls.
+ *              compareTo is measured on two equal values, its slowest case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GinormIntBenchmark {
+
+    private static final MethodHandle NEW_GINORM_INT;
+    private static final MethodHandle PLUS;
+    private static final MethodHandle MINUS;
+    private static final MethodHandle TIMES;
+    private static final MethodHandle COMPARE_TO;
+    private static final MethodHandle TO_STRING;
+    private static final MethodHandle TO_BYTE_ARRAY;
+
+    static {
+        try {
+            Class<?> ginormInt = Class.forName("GinormInt");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodType binary = MethodType.methodType(Object.class, Object.class, Object.class);
+            NEW_GINORM_INT = lookup.findConstructor(ginormInt, MethodType.methodType(void.class, CharSequence.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            PLUS = lookup.findVirtual(ginormInt, "plus", MethodType.methodType(ginormInt, ginormInt)).asType(binary);
+            MINUS = lookup.findVirtual(ginormInt, "minus", MethodType.methodType(ginormInt, ginormInt)).asType(binary);
+            TIMES = lookup.findVirtual(ginormInt, "times", MethodType.methodType(ginormInt, ginormInt)).asType(binary);
+            COMPARE_TO = lookup.findVirtual(ginormInt, "compareTo", MethodType.methodType(int.class, ginormInt))
+                .asType(MethodType.methodType(int.class, Object.class, Object.class));
+            TO_STRING = lookup.findVirtual(ginormInt, "toString", MethodType.methodType(String.class))
+                .asType(MethodType.methodType(String.class, Object.class));
+            TO_BYTE_ARRAY = lookup.findVirtual(ginormInt, "toByteArray", MethodType.methodType(byte[].class))
+                .asType(MethodType.methodType(byte[].class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"10", "100", "1000", "10000", "100000", "1000000"})
+    public int digits;
+
+    private String text;
+    private Object a;
+    private Object b;
+    private Object aCopy;
+    private BigInteger bigA;
+    private BigInteger bigB;
+    private BigInteger bigACopy;
+
+    /**
+     * Builds two random operands with exactly the given number of digits. The
+     * BigInteger copies go through bytes, since BigInteger parses huge decimal
+     * strings in quadratic time. Even so, converting to bytes takes over a minute
+     * at 10^7 digits, so only the BigInteger benchmarks build them, and the
+     * equal copy is made from bigA's bytes instead of converting again.
+     */
+    @Setup
+    public void setUp(BenchmarkParams params) throws Throwable {
+        Random random = new Random(186L * digits);
+        text = randomDigits(random);
+        a = (Object) NEW_GINORM_INT.invokeExact(text);
+        b = (Object) NEW_GINORM_INT.invokeExact(randomDigits(random));
+        aCopy = (Object) NEW_GINORM_INT.invokeExact(text);
+        if (params.getBenchmark().endsWith("Constructor") || !params.getBenchmark().contains(".bigInteger")) {
+            return;
+        }
+        bigA = new BigInteger((byte[]) TO_BYTE_ARRAY.invokeExact(a));
+        bigB = new BigInteger((byte[]) TO_BYTE_ARRAY.invokeExact(b));
+        bigACopy = new BigInteger(bigA.toByteArray());
+    }
+
+    private String randomDigits(Random random) {
+        char[] chars = new char[digits];
+        chars[0] = (char) ('1' + random.nextInt(9));
+        for (int i = 1; i < digits; i++) {
+            chars[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    public Object ginormIntConstructor() throws Throwable {
+        return (Object) NEW_GINORM_INT.invokeExact(text);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerConstructor() {
+        return new BigInteger(text);
+    }
+
+    @Benchmark
+    public Object ginormIntPlus() throws Throwable {
+        return (Object) PLUS.invokeExact(a, b);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerPlus() {
+        return bigA.add(bigB);
+    }
+
+    @Benchmark
+    public Object ginormIntMinus() throws Throwable {
+        return (Object) MINUS.invokeExact(a, b);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerMinus() {
+        return bigA.subtract(bigB);
+    }
+
+    @Benchmark
+    public Object ginormIntTimes() throws Throwable {
+        return (Object) TIMES.invokeExact(a, b);
+    }
+
+    @Benchmark
+    public BigInteger bigIntegerTimes() {
+        return bigA.multiply(bigB);
+    }
+
+    @Benchmark
+    public int ginormIntCompareTo() throws Throwable {
+        return (int) COMPARE_TO.invokeExact(a, aCopy);
+    }
+
+    @Benchmark
+    public int bigIntegerCompareTo() {
+        return bigA.compareTo(bigACopy);
+    }
+
+    @Benchmark
+    public String ginormIntToString() throws Throwable {
+        return (String) TO_STRING.invokeExact(a);
+    }
+
+    @Benchmark
+    public String bigIntegerToString() {
+        return bigA.toString();
+    }
+}